@@ -0,0 +1,131 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import com.hughes.util.DataInputBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+
+/**
+ * Decoding all pair entry and index entry blocks of the dictionary with
+ * the selected codec, without parsing the entries, e.g. with
+ * {@code -p codec=DEFLATE,DEFLATE_PRESET,LZ}.
+ * Setup prints the file size and the raw and compressed block sizes.
+ * Add {@code -p dictionary=DE-EN.quickdic} for a real dictionary.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CodecBenchmark extends DictionaryBenchmark {
+
+    /**
+     * Blocks hold this many times fewer entries than DictionaryWriter
+     * uses with the codec.
+     */
+    @Param({"1"})
+    public int blockSizeDivisor;
+
+    private final List<byte[]> blocks = new ArrayList<>();
+    // Preset dictionary of each block, null entries for none.
+    private final List<byte[]> presetDictionaries = new ArrayList<>();
+    private long rawBytes;
+    // Including the preset dictionaries.
+    private long compressedBytes;
+
+    // Overrides the @Setup method instead of adding a second one,
+    // which JMH might run before the dictionary exists.
+    @Override
+    public void setUpDictionary() throws Exception {
+        super.setUpDictionary();
+        try (BlockCompressor compressor = new BlockCompressor(1, codec)) {
+            addList(compressor, dict.pairEntries,
+                    DictionaryWriter.smallEntryBlockSize(DictionaryWriter.PAIR_BLOCK_SIZE, codec),
+                    (entry, out) -> entry.write(out));
+            for (final Index index : dict.indices) {
+                addList(compressor, index.sortedIndexEntries,
+                        DictionaryWriter.smallEntryBlockSize(DictionaryWriter.INDEX_ENTRY_BLOCK_SIZE, codec),
+                        (entry, out) -> entry.write(out));
+            }
+        }
+        System.out.printf("%n%s: file %d bytes, %d blocks, %d raw bytes, %d compressed bytes (%.1f%%)%n",
+                          codec, file.length(), blocks.size(), rawBytes, compressedBytes,
+                          100.0 * compressedBytes / rawBytes);
+    }
+
+    private interface EntryWriter<T> {
+        void write(T entry, DataOutputStream out) throws IOException;
+    }
+
+    private <T> void addList(final BlockCompressor compressor, final List<T> entries, final int blockSize,
+                             final EntryWriter<T> writer) throws Exception {
+        final int entriesPerBlock = Math.max(1, blockSize / blockSizeDivisor);
+        final PresetDictionary sampler = new PresetDictionary();
+        final List<byte[]> raw = new ArrayList<>();
+        final ByteArrayOutputStream block = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(block);
+        for (int i = 0; i < entries.size(); ++i) {
+            writer.write(entries.get(i), out);
+            if ((i + 1) % entriesPerBlock == 0 || i + 1 == entries.size()) {
+                sampler.sample(block);
+                raw.add(block.toByteArray());
+                block.reset();
+            }
+        }
+        final byte[] presetDictionary = codec.presetDictionary ? sampler.train() : null;
+        for (final byte[] bytes : raw) {
+            final byte[] compressed = compressor.submit(bytes, presetDictionary).get();
+            blocks.add(compressed);
+            presetDictionaries.add(presetDictionary);
+            rawBytes += bytes.length;
+            compressedBytes += compressed.length;
+        }
+        if (presetDictionary != null) {
+            compressedBytes += presetDictionary.length;
+        }
+    }
+
+    @Benchmark
+    public long decodeBlocks() throws IOException, DataFormatException {
+        long decoded = 0;
+        for (int i = 0; i < blocks.size(); ++i) {
+            final byte[] block = blocks.get(i);
+            final DataInputBuffer in = new DataInputBuffer(ByteBuffer.wrap(block), 0);
+            if (codec == BlockCodec.LZ) {
+                decoded += LzCodec.decompress(in, block.length).length;
+            } else {
+                final InflaterPool inflater = InflaterPool.get();
+                try {
+                    inflater.read(in, block.length);
+                    decoded += inflater.inflate(block.length, presetDictionaries.get(i)).length;
+                } finally {
+                    inflater.recycle();
+                }
+            }
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,63 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The first Index.findInsertionPoint on a freshly opened dictionary,
+ * so that every block it needs has to be decompressed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ColdLookupBenchmark extends DictionaryBenchmark {
+
+    private String[] prefixes;
+    private Index coldIndex;
+
+    // Overrides the @Setup method instead of adding a second one,
+    // which JMH might run before the dictionary exists.
+    @Override
+    public void setUpDictionary() throws Exception {
+        super.setUpDictionary();
+        final Index index = dict.indices.get(0);
+        final Random random = new Random(seed);
+        prefixes = new String[NUM_QUERIES];
+        for (int i = 0; i < NUM_QUERIES; ++i) {
+            final String token = index.sortedIndexEntries.get(random.nextInt(index.sortedIndexEntries.size())).token;
+            prefixes[i] = token.substring(0, 1 + random.nextInt(token.length()));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void reopen() throws IOException {
+        coldIndex = open().indices.get(0);
+    }
+
+    @Benchmark
+    public Index.IndexEntry findInsertionPoint(final Cursor cursor) {
+        return coldIndex.findInsertionPoint(prefixes[cursor.next(NUM_QUERIES)], new AtomicBoolean());
+    }
+}
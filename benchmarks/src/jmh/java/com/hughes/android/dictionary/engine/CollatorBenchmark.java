@@ -0,0 +1,64 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import com.hughes.android.dictionary.CollatorWrapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of getting a collator: Language.getCollator and borrowing one from
+ * the pool searches use, against building a new one as it did before
+ * collators were cached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CollatorBenchmark {
+
+    @Benchmark
+    public int borrowCollatorAndCompare() {
+        final Comparator<Object> collator = Language.de.borrowCollator();
+        try {
+            return collator.compare("häuser", "hausboot");
+        } finally {
+            Language.de.releaseCollator(collator);
+        }
+    }
+
+    @Benchmark
+    public Comparator<Object> getCollator() {
+        return Language.de.getCollator();
+    }
+
+    @Benchmark
+    public Comparator<Object> newCollator() {
+        return CollatorWrapper.getInstanceStrengthIdentical(Locale.GERMAN);
+    }
+
+    @Benchmark
+    public int getCollatorAndCompare() {
+        return Language.de.getCollator().compare("häuser", "hausboot");
+    }
+}
@@ -0,0 +1,131 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Common state of the benchmarks: a synthetic dictionary, or a copy of
+ * an existing one, written to a temporary file and opened the same way
+ * the app does.
+ */
+@State(Scope.Benchmark)
+public abstract class DictionaryBenchmark {
+
+    // Number of queries prepared up front, cycled through by the benchmarks.
+    static final int NUM_QUERIES = 1024;
+
+    /**
+     * Number of PairEntries, a quarter as many HtmlEntries are added.
+     */
+    @Param({"50000"})
+    public int entries;
+
+    @Param({"42"})
+    public long seed;
+
+    /**
+     * Existing .quickdic file to rewrite instead of generating one,
+     * entries and seed then only affect the queries.
+     */
+    @Param({""})
+    public String dictionary;
+
+    /**
+     * Codec of the compressed lists.
+     */
+    @Param({"DEFLATE"})
+    public BlockCodec codec;
+
+    /**
+     * Whether index entries are front-coded.
+     */
+    @Param({"false"})
+    public boolean frontCode;
+
+    /**
+     * Whether the block heads of the index entries are stored.
+     */
+    @Param({"false"})
+    public boolean blockHeads;
+
+    File file;
+    Dictionary dict;
+
+    @Setup
+    public void setUpDictionary() throws Exception {
+        SyntheticDictionary.initTransliterators();
+        file = File.createTempFile("benchmark", ".quickdic");
+        file.deleteOnExit();
+        if (dictionary.isEmpty()) {
+            final SyntheticDictionary.Options options = new SyntheticDictionary.Options();
+            options.pairEntries = entries;
+            options.htmlEntries = entries / 4;
+            options.seed = seed;
+            options.codec = codec;
+            options.frontCode = frontCode;
+            options.blockHeads = blockHeads;
+            SyntheticDictionary.write(options, file);
+        } else {
+            final Dictionary source;
+            try (FileInputStream in = new FileInputStream(dictionary)) {
+                source = new Dictionary(in.getChannel());
+            }
+            source.frontCodeIndexEntries = frontCode;
+            source.writeBlockHeads = blockHeads;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                source.write(out, 1, codec);
+            }
+        }
+        dict = open();
+    }
+
+    @TearDown
+    public void deleteDictionary() {
+        file.delete();
+    }
+
+    Dictionary open() throws IOException {
+        // The mapping stays valid after the channel is closed.
+        try (FileInputStream in = new FileInputStream(file)) {
+            return new Dictionary(in.getChannel());
+        }
+    }
+
+    /**
+     * Per-thread position in the prepared query arrays.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int next(final int size) {
+            final int i = next;
+            next = next + 1 == size ? 0 : next + 1;
+            return i;
+        }
+    }
+}
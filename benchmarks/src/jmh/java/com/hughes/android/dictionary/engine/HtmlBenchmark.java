@@ -0,0 +1,59 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HtmlEntry.LazyHtmlLoader.getHtml, i.e. finding and decompressing the
+ * HTML of an entry. Entries are visited with a stride, once there are more
+ * of them than the entry cache holds each call loads from the file.
+ * getRawTextLength is what sorting search results needs instead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HtmlBenchmark extends DictionaryBenchmark {
+
+    private static final int ENTRY_STRIDE = 7919;
+
+    private Dictionary coldDict;
+
+    @Setup(Level.Iteration)
+    public void reopen() throws IOException {
+        coldDict = open();
+    }
+
+    @Benchmark
+    public String getHtml(final Cursor cursor) {
+        final int numEntries = coldDict.htmlEntries.size();
+        final int entry = (int)((long)cursor.next(numEntries) * ENTRY_STRIDE % numEntries);
+        return coldDict.htmlEntries.get(entry).getHtml();
+    }
+
+    @Benchmark
+    public int getRawTextLength(final Cursor cursor) {
+        final int numEntries = coldDict.htmlEntries.size();
+        final int entry = (int)((long)cursor.next(numEntries) * ENTRY_STRIDE % numEntries);
+        return coldDict.htmlEntries.get(entry).getRawTextLength();
+    }
+}
@@ -0,0 +1,114 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Index lookups: binary search and the TokenRow scan, and scans
+ * of row ranges like multiWordSearch does, with and without RowCursor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IndexBenchmark extends DictionaryBenchmark {
+
+    // Step through the rows with a prime stride, so that consecutive
+    // calls do not hit rows whose TokenRow was just looked up.
+    private static final int ROW_STRIDE = 7919;
+    // Rows per scan, about as many as a search goes through.
+    private static final int SCAN_ROWS = 1000;
+
+    private Index index;
+    private String[] exactTokens;
+    private String[] prefixes;
+    private Dictionary coldDict;
+
+    @Setup
+    public void setUpQueries() {
+        index = dict.indices.get(0);
+        final Random random = new Random(seed);
+        exactTokens = new String[NUM_QUERIES];
+        prefixes = new String[NUM_QUERIES];
+        for (int i = 0; i < NUM_QUERIES; ++i) {
+            final String token = index.sortedIndexEntries.get(random.nextInt(index.sortedIndexEntries.size())).token;
+            exactTokens[i] = token;
+            prefixes[i] = token.substring(0, 1 + random.nextInt(token.length()));
+        }
+    }
+
+    // Fresh row objects, otherwise getTokenRow only returns
+    // what an earlier iteration found.
+    @Setup(Level.Iteration)
+    public void reopen() throws IOException {
+        coldDict = open();
+    }
+
+    @Benchmark
+    public Index.IndexEntry findInsertionPoint(final Cursor cursor) {
+        return index.findInsertionPoint(prefixes[cursor.next(NUM_QUERIES)], new AtomicBoolean());
+    }
+
+    @Benchmark
+    public Index.IndexEntry findExact(final Cursor cursor) {
+        return index.findExact(exactTokens[cursor.next(NUM_QUERIES)]);
+    }
+
+    @Benchmark
+    public TokenRow getTokenRow(final Cursor cursor) {
+        final Index coldIndex = coldDict.indices.get(0);
+        final int numRows = coldIndex.rows.size();
+        final int row = (int)((long)cursor.next(numRows) * ROW_STRIDE % numRows);
+        return coldIndex.rows.get(row).getTokenRow(true);
+    }
+
+    @Benchmark
+    public int scanRowObjects(final Cursor cursor) {
+        final int start = scanStart(cursor);
+        final int end = Math.min(start + SCAN_ROWS, index.rows.size());
+        int sum = 0;
+        for (int i = start; i < end; ++i) {
+            final RowBase row = index.rows.get(i);
+            sum += RowBase.Serializer.type(row) + row.referenceIndex;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int scanRowCursor(final Cursor cursor) {
+        final int start = scanStart(cursor);
+        final RowCursor rows = index.rowCursor().reset(start, start + SCAN_ROWS);
+        int sum = 0;
+        while (rows.next()) {
+            sum += rows.type() + rows.referenceIndex();
+        }
+        return sum;
+    }
+
+    // Consecutive scans use different rows, so they are not all cached.
+    private int scanStart(final Cursor cursor) {
+        final int ranges = Math.max(1, index.rows.size() / SCAN_ROWS);
+        return (int)((long)cursor.next(ranges) * ROW_STRIDE % ranges) * SCAN_ROWS;
+    }
+}
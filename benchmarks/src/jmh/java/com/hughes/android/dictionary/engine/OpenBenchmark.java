@@ -0,0 +1,46 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opening whole dictionaries, where open() only reads the index headers
+ * and openAndLoadIndices() also what an index needs once it is used.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OpenBenchmark extends DictionaryBenchmark {
+
+    @Benchmark
+    public Dictionary open() throws IOException {
+        return super.open();
+    }
+
+    @Benchmark
+    public Dictionary openAndLoadIndices() throws IOException {
+        final Dictionary dict = super.open();
+        for (final Index index : dict.indices) {
+            index.stoplist.size();
+        }
+        return dict;
+    }
+}
@@ -0,0 +1,60 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential scan of Dictionary.pairEntries on a freshly opened
+ * dictionary, dominated by block decompression.
+ * Run with -prof gc to see the allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ScanBenchmark extends DictionaryBenchmark {
+
+    /**
+     * Budget of Dictionary.blockCache, 0 inflates the block again for
+     * every entry.
+     */
+    @Param({"0", "4194304"})
+    public long blockCacheBudget;
+
+    private Dictionary fresh;
+
+    @Setup(Level.Invocation)
+    public void reopen() throws IOException {
+        fresh = open();
+        fresh.blockCache.setBudget(blockCacheBudget);
+    }
+
+    @Benchmark
+    public int scanPairEntries() {
+        int pairs = 0;
+        for (final PairEntry entry : fresh.pairEntries) {
+            pairs += entry.pairs.size();
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,90 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Index.multiWordSearch with queries taken from existing entries,
+ * the last word cut short as while typing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark extends DictionaryBenchmark {
+
+    @Param({"1", "2", "3", "4"})
+    public int tokens;
+
+    /**
+     * Budget of Dictionary.blockCache, 0 inflates on every block access.
+     */
+    @Param({"4194304"})
+    public long blockCacheBudget;
+
+    /**
+     * Number of results asked for, 0 for all of them.
+     */
+    @Param({"0"})
+    public int maxResults;
+
+    private Index index;
+    private String[] searchTexts;
+    private String[][] searchTokens;
+
+    @Setup
+    public void setUpQueries() {
+        dict.blockCache.setBudget(blockCacheBudget);
+        index = dict.indices.get(0);
+        final Random random = new Random(seed);
+        searchTexts = new String[NUM_QUERIES];
+        searchTokens = new String[NUM_QUERIES][];
+        for (int i = 0; i < NUM_QUERIES; ) {
+            final PairEntry entry = dict.pairEntries.get(random.nextInt(dict.pairEntries.size()));
+            final String[] words = entry.pairs.get(0).lang1.split(" ");
+            if (words.length < tokens) {
+                continue;
+            }
+            final String[] query = Arrays.copyOf(words, tokens);
+            final String last = query[tokens - 1];
+            query[tokens - 1] = last.substring(0, 1 + random.nextInt(last.length()));
+            searchTokens[i] = query;
+            searchTexts[i] = String.join(" ", query);
+            ++i;
+        }
+    }
+
+    @Benchmark
+    public List<RowBase> multiWordSearch(final Cursor cursor) {
+        final int i = cursor.next(NUM_QUERIES);
+        // multiWordSearch normalizes the token list in place.
+        final List<String> tokenList = new ArrayList<>(Arrays.asList(searchTokens[i]));
+        if (maxResults > 0) {
+            return index.multiWordSearch(searchTexts[i], tokenList, new AtomicBoolean(), null, maxResults);
+        }
+        return index.multiWordSearch(searchTexts[i], tokenList, new AtomicBoolean());
+    }
+}
@@ -0,0 +1,424 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Writes reproducible random pair dictionaries for benchmarking and load
+ * tests: one index per language, each with its own sortLanguage, and
+ * HtmlEntries indexed in the first language.
+ * Words are drawn with a Zipf distribution from a generated vocabulary,
+ * so there are a few very frequent tokens (the most frequent ones form the
+ * stoplist) and a long tail of rare ones, as in real dictionaries.
+ * Same options and seed always give the same dictionary.
+ * <p>
+ * Run headless with e.g.
+ * {@code --entries=1000000 --html=100000 --lang1=DE --lang2=RU --seed=1 --out=big.quickdic}
+ */
+final class SyntheticDictionary {
+
+    private static final Map<String, String[]> SYLLABLES = new HashMap<>();
+
+    static {
+        SYLLABLES.put("DE", new String[] {
+                          "ha", "us", "ba", "hn", "ge", "sch", "ein", "ung", "ver", "kla",
+                          "mö", "ße", "ti", "re", "an", "ä", "ber", "lie", "st", "zu",
+                          "ü", "ck", "wer", "den", "tz", "ei", "au", "pf", "ni", "lo",
+                      });
+        SYLLABLES.put("EN", new String[] {
+                          "th", "ing", "ca", "ro", "ad", "pe", "ou", "se", "ly", "wa",
+                          "ter", "ne", "mi", "co", "st", "ar", "en", "bo", "di", "ve",
+                          "sh", "ow", "li", "ta", "pr", "ea", "ch", "ki", "mo", "us",
+                      });
+        SYLLABLES.put("FR", new String[] {
+                          "é", "ai", "qu", "ou", "eu", "ch", "on", "re", "la", "te",
+                          "mè", "ç", "ni", "vo", "ti", "eau", "gn", "pa", "ro", "au",
+                          "in", "ée", "de", "si", "lu", "ma", "po", "ê", "è", "tu",
+                      });
+        SYLLABLES.put("ES", new String[] {
+                          "ca", "ño", "ll", "rr", "qu", "ue", "ci", "ón", "da", "to",
+                          "mi", "la", "pe", "ra", "é", "á", "ín", "gu", "ba", "so",
+                          "es", "te", "ro", "ar", "ch", "lo", "ma", "ú", "de", "vi",
+                      });
+        SYLLABLES.put("RU", new String[] {
+                          "ка", "ст", "ор", "на", "ль", "ви", "ще", "ой", "ры", "жи",
+                          "ть", "ма", "пр", "ов", "ек", "ра", "зу", "ён", "ши", "то",
+                          "ба", "ды", "эт", "ю", "ня", "чи", "ге", "ол", "ус", "ф",
+                      });
+        SYLLABLES.put("EL", new String[] {
+                          "κα", "τη", "ος", "πο", "λι", "μα", "νε", "ρο", "σι", "ου",
+                          "αι", "ει", "θε", "φι", "χα", "ψυ", "γι", "δο", "ζω", "ξε",
+                          "ή", "ά", "ό", "ύ", "ί", "τα", "με", "λο", "πε", "ρα",
+                      });
+    }
+
+    // Probabilities of 1, 2, ... syllables per word, words per text,
+    // and pairs per entry.
+    private static final double[] SYLLABLES_PER_WORD = {0.12, 0.38, 0.30, 0.13, 0.05, 0.02};
+    private static final double[] WORDS_PER_TEXT = {0.40, 0.28, 0.16, 0.09, 0.04, 0.03};
+    private static final double[] PAIRS_PER_ENTRY = {0.70, 0.20, 0.07, 0.03};
+    private static final double ZIPF_EXPONENT = 1.0;
+    private static final int STOPLIST_SIZE = 3;
+    // Written as the creation time, so the same options give the same bytes.
+    private static final long CREATION_MILLIS = 1767225600000L; // 2026-01-01
+
+    static final class Options {
+        long seed = 42;
+        int pairEntries = 10000;
+        int htmlEntries = 2500;
+        String lang1 = "DE";
+        String lang2 = "EN";
+        boolean sortKeys;
+        boolean entryTable;
+        boolean frontCode;
+        boolean blockHeads;
+        int threads = 1;
+        BlockCodec codec = BlockCodec.DEFLATE;
+    }
+
+    private SyntheticDictionary() {
+    }
+
+    static void initTransliterators() throws InterruptedException {
+        while (!TransliteratorManager.init(null, null)) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static int pick(final Random random, final double[] probabilities) {
+        double r = random.nextDouble();
+        for (int i = 0; i < probabilities.length - 1; ++i) {
+            r -= probabilities[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return probabilities.length - 1;
+    }
+
+    /**
+     * Generated words of one language, sampled by Zipf rank.
+     */
+    private static final class Vocabulary {
+        final String[] words;
+        private final double[] cumulative;
+
+        Vocabulary(final String language, final int size, final Random random) {
+            final String[] syllables = SYLLABLES.get(language);
+            if (syllables == null) {
+                throw new IllegalArgumentException("Unsupported language " + language
+                                                   + ", supported: " + SYLLABLES.keySet());
+            }
+            final Locale locale = Locale.forLanguageTag(language);
+            final Set<String> seen = new HashSet<>(size * 2);
+            words = new String[size];
+            for (int i = 0; i < size; ++i) {
+                final StringBuilder word = new StringBuilder();
+                final int n = 1 + pick(random, SYLLABLES_PER_WORD);
+                for (int s = 0; s < n; ++s) {
+                    word.append(syllables[random.nextInt(syllables.length)]);
+                }
+                // Stoplist words stay lower-case and without dashes.
+                if (i >= STOPLIST_SIZE) {
+                    if (n > 2 && random.nextInt(30) == 0) {
+                        word.insert(word.length() / 2, '-');
+                    }
+                    if (language.equals("DE") && random.nextInt(3) == 0) {
+                        word.replace(0, 1, word.substring(0, 1).toUpperCase(locale));
+                    }
+                }
+                while (!seen.add(word.toString())) {
+                    word.append(syllables[random.nextInt(syllables.length)]);
+                }
+                words[i] = word.toString();
+            }
+            cumulative = new double[size];
+            double sum = 0;
+            for (int i = 0; i < size; ++i) {
+                sum += 1.0 / Math.pow(i + 1, ZIPF_EXPONENT);
+                cumulative[i] = sum;
+            }
+        }
+
+        int sample(final Random random) {
+            final int i = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+            return i >= 0 ? i : Math.min(-i - 1, cumulative.length - 1);
+        }
+
+        Set<String> stoplist() {
+            return new HashSet<>(Arrays.asList(words).subList(0, Math.min(STOPLIST_SIZE, words.length)));
+        }
+    }
+
+    /**
+     * Growable list of (word, entry) postings, packed into longs so that
+     * millions of them can be sorted without objects.
+     */
+    private static final class Postings {
+        long[] data = new long[1024];
+        int size;
+
+        void add(final int word, final int entry) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = ((long)word << 32) | entry;
+        }
+
+        // Sorts by word, then entry, and removes duplicates.
+        void sortUnique() {
+            Arrays.sort(data, 0, size);
+            int n = 0;
+            for (int i = 0; i < size; ++i) {
+                if (n == 0 || data[n - 1] != data[i]) {
+                    data[n++] = data[i];
+                }
+            }
+            size = n;
+        }
+
+        static int word(final long posting) {
+            return (int)(posting >>> 32);
+        }
+
+        static int entry(final long posting) {
+            return (int)posting;
+        }
+    }
+
+    private static String text(final Random random, final Vocabulary vocabulary, final Postings postings,
+                               final int entry) {
+        final StringBuilder text = new StringBuilder();
+        for (int n = 1 + pick(random, WORDS_PER_TEXT); n > 0; --n) {
+            final int word = vocabulary.sample(random);
+            if (postings != null) {
+                postings.add(word, entry);
+            }
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(vocabulary.words[word]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Short form for the benchmarks, a DE-EN dictionary.
+     */
+    static void write(final int numPairEntries, final int numHtmlEntries, final long seed,
+                      final File file) throws IOException {
+        final Options options = new Options();
+        options.pairEntries = numPairEntries;
+        options.htmlEntries = numHtmlEntries;
+        options.seed = seed;
+        write(options, file);
+    }
+
+    /**
+     * Generates the dictionary straight into file through DictionaryWriter,
+     * only the vocabularies and (word, entry) postings are kept in memory.
+     */
+    static void write(final Options options, final File file) throws IOException {
+        final Random random = new Random(options.seed);
+        final int vocabularySize = Math.max(1000, options.pairEntries);
+        final Vocabulary vocabulary1 = new Vocabulary(options.lang1, vocabularySize, random);
+        final Vocabulary vocabulary2 = new Vocabulary(options.lang2, vocabularySize, random);
+        final Postings pairPostings1 = new Postings();
+        final Postings pairPostings2 = new Postings();
+        final Postings htmlPostings = new Postings();
+
+        final String dictInfo = "Synthetic " + options.lang1 + "-" + options.lang2
+                                + " dictionary, seed " + options.seed;
+        try (DictionaryWriter writer = new DictionaryWriter(dictInfo, CREATION_MILLIS,
+                                                            file.getAbsoluteFile().getParentFile(),
+                                                            options.threads, options.codec)) {
+            writer.frontCodeIndexEntries = options.frontCode;
+            writer.writeBlockHeads = options.blockHeads;
+            final EntrySource source = new EntrySource(0, "synthetic", options.pairEntries + options.htmlEntries);
+            writer.addSource(source);
+            for (int i = 0; i < options.pairEntries; ++i) {
+                final PairEntry entry = new PairEntry(source);
+                for (int n = 1 + pick(random, PAIRS_PER_ENTRY); n > 0; --n) {
+                    entry.pairs.add(new PairEntry.Pair(text(random, vocabulary1, pairPostings1, i),
+                                                       text(random, vocabulary2, pairPostings2, i)));
+                }
+                writer.addPairEntry(entry);
+            }
+            for (int i = 0; i < options.htmlEntries; ++i) {
+                final int title = vocabulary1.sample(random);
+                htmlPostings.add(title, i);
+                final HtmlEntry entry = new HtmlEntry(source, vocabulary1.words[title]);
+                final StringBuilder html = new StringBuilder("<p>");
+                // Mostly short, sometimes very long.
+                int sentences = 1 + random.nextInt(16);
+                if (random.nextInt(100) == 0) {
+                    sentences *= 20;
+                }
+                for (; sentences > 0; --sentences) {
+                    html.append(text(random, vocabulary1, null, i)).append(". ");
+                }
+                entry.html = html.append("</p>").toString();
+                writer.addHtmlEntry(entry);
+            }
+
+            writeIndex(writer, options.lang1, vocabulary1, pairPostings1, htmlPostings, false, options);
+            writeIndex(writer, options.lang2, vocabulary2, pairPostings2, new Postings(), true, options);
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                writer.write(out);
+            }
+        }
+    }
+
+    private static void writeIndex(final DictionaryWriter writer, final String shortName,
+                                   final Vocabulary vocabulary, final Postings pairPostings,
+                                   final Postings htmlPostings, final boolean swapPairEntries,
+                                   final Options options) throws IOException {
+        final Language language = Language.lookup(shortName);
+        final String longName = Locale.forLanguageTag(shortName).getDisplayLanguage(Locale.ENGLISH);
+        final String normalizerRules = language.getDefaultNormalizerRules();
+        final DictionaryWriter.IndexWriter index = writer.addIndex(shortName, longName, language, normalizerRules,
+                swapPairEntries, vocabulary.stoplist(), options.sortKeys, options.entryTable);
+        pairPostings.sortUnique();
+        htmlPostings.sortUnique();
+
+        // Sort the used words, normalizing each only once,
+        // NormalizeComparator.compare would do it on every comparison.
+        final NormalizeComparator comparator = new NormalizeComparator(TransliteratorManager.get(normalizerRules),
+                language.getCollator(), Dictionary.CURRENT_DICT_VERSION);
+        final String[] normalized = new String[vocabulary.words.length];
+        final List<Integer> tokens = new ArrayList<>();
+        for (final Postings postings : Arrays.asList(pairPostings, htmlPostings)) {
+            for (int i = 0; i < postings.size; ++i) {
+                final int word = Postings.word(postings.data[i]);
+                if (normalized[word] == null) {
+                    normalized[word] = comparator.normalize(vocabulary.words[word]);
+                    tokens.add(word);
+                }
+            }
+        }
+        tokens.sort((a, b) -> comparator.compareNormalized(vocabulary.words[a], vocabulary.words[b],
+                    normalized[a], normalized[b]));
+
+        final int[] pairStart = postingStarts(pairPostings, vocabulary.words.length);
+        final int[] htmlStart = postingStarts(htmlPostings, vocabulary.words.length);
+        for (final int word : tokens) {
+            final int startRow = index.addTokenRow(index.getIndexEntryCount(), true);
+            final int[] htmlEntries = new int[htmlStart[word + 1] - htmlStart[word]];
+            for (int i = htmlStart[word]; i < htmlStart[word + 1]; ++i) {
+                htmlEntries[i - htmlStart[word]] = Postings.entry(htmlPostings.data[i]);
+                index.addHtmlRow(Postings.entry(htmlPostings.data[i]));
+            }
+            for (int i = pairStart[word]; i < pairStart[word + 1]; ++i) {
+                index.addPairRow(Postings.entry(pairPostings.data[i]));
+            }
+            index.addIndexEntry(vocabulary.words[word], normalized[word], startRow,
+                                index.getRowCount() - startRow - 1, htmlEntries);
+        }
+        index.mainTokenCount = index.getIndexEntryCount();
+    }
+
+    // Position of the first posting of each word, plus an end marker.
+    private static int[] postingStarts(final Postings postings, final int numWords) {
+        final int[] starts = new int[numWords + 1];
+        for (int i = 0; i < postings.size; ++i) {
+            ++starts[Postings.word(postings.data[i]) + 1];
+        }
+        for (int i = 0; i < numWords; ++i) {
+            starts[i + 1] += starts[i];
+        }
+        return starts;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final Options options = new Options();
+        String out = null;
+        for (final String arg : args) {
+            final int eq = arg.indexOf('=');
+            final String name = eq == -1 ? arg : arg.substring(0, eq);
+            final String value = eq == -1 ? "" : arg.substring(eq + 1);
+            switch (name) {
+            case "--entries":
+                options.pairEntries = Integer.parseInt(value);
+                break;
+            case "--html":
+                options.htmlEntries = Integer.parseInt(value);
+                break;
+            case "--seed":
+                options.seed = Long.parseLong(value);
+                break;
+            case "--lang1":
+                options.lang1 = value.toUpperCase(Locale.US);
+                break;
+            case "--lang2":
+                options.lang2 = value.toUpperCase(Locale.US);
+                break;
+            case "--sortKeys":
+                options.sortKeys = true;
+                break;
+            case "--entryTable":
+                options.entryTable = true;
+                break;
+            case "--frontCode":
+                options.frontCode = true;
+                break;
+            case "--blockHeads":
+                options.blockHeads = true;
+                break;
+            case "--threads":
+                options.threads = Integer.parseInt(value);
+                break;
+            case "--codec":
+                options.codec = BlockCodec.valueOf(value.toUpperCase(Locale.ROOT));
+                break;
+            case "--out":
+                out = value;
+                break;
+            default:
+                System.err.println("Unknown option " + arg);
+                System.err.println("Usage: --out=FILE [--entries=N] [--html=N] [--seed=N]"
+                                   + " [--lang1=" + options.lang1 + "] [--lang2=" + options.lang2 + "]"
+                                   + " [--sortKeys] [--entryTable] [--frontCode] [--blockHeads]"
+                                   + " [--threads=N] [--codec=deflate|deflate_preset|lz]");
+                System.exit(1);
+            }
+        }
+        if (out == null) {
+            System.err.println("Missing --out=FILE");
+            System.exit(1);
+        }
+        initTransliterators();
+        final long start = System.currentTimeMillis();
+        final File file = new File(out);
+        write(options, file);
+        System.out.println("Wrote " + options.pairEntries + " pair and " + options.htmlEntries
+                           + " html entries, " + file.length() + " bytes to " + out + " in "
+                           + (System.currentTimeMillis() - start) + " ms");
+    }
+}
@@ -0,0 +1,167 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes the same synthetic dictionary as v7 and as v8 with every index
+ * flag on (sort keys, entry table, front-coded entries and block heads),
+ * once with LZ and once with preset dictionary blocks, and checks that
+ * the v8 files read back to the same entries, rows and search results.
+ */
+public class AllFlagsDictionaryTest {
+
+    private static final int ENTRIES = 3000;
+
+    @ClassRule
+    public static final TemporaryFolder folder = new TemporaryFolder();
+
+    private static Dictionary v7;
+
+    @BeforeClass
+    public static void openV7() throws Exception {
+        SyntheticDictionary.initTransliterators();
+        v7 = open(options(BlockCodec.DEFLATE, false), "v7.quickdic");
+        assertEquals(7, v7.dictFileVersion);
+    }
+
+    private static SyntheticDictionary.Options options(final BlockCodec codec, final boolean allFlags) {
+        final SyntheticDictionary.Options options = new SyntheticDictionary.Options();
+        options.pairEntries = ENTRIES;
+        options.htmlEntries = ENTRIES / 4;
+        options.codec = codec;
+        options.sortKeys = allFlags;
+        options.entryTable = allFlags;
+        options.frontCode = allFlags;
+        options.blockHeads = allFlags;
+        options.threads = 2;
+        return options;
+    }
+
+    private static Dictionary open(final SyntheticDictionary.Options options, final String name) throws IOException {
+        final File file = folder.newFile(name);
+        SyntheticDictionary.write(options, file);
+        try (FileInputStream in = new FileInputStream(file)) {
+            return new Dictionary(in.getChannel());
+        }
+    }
+
+    private static String describe(final Index.IndexEntry entry) {
+        if (entry == null) {
+            return "null";
+        }
+        final StringBuilder result = new StringBuilder(entry.toString()).append(' ').append(entry.normalizedToken());
+        for (final HtmlEntry htmlEntry : entry.htmlEntries) {
+            result.append(' ').append(htmlEntry.index());
+        }
+        return result.toString();
+    }
+
+    private static String describe(final RowBase row) {
+        return row.getClass().getSimpleName() + "#" + row.index() + "@" + row.referenceIndex;
+    }
+
+    private static void checkSameContents(final Dictionary v8) {
+        assertEquals(Dictionary.CURRENT_DICT_VERSION, v8.dictFileVersion);
+        assertEquals(v7.dictInfo, v8.dictInfo);
+
+        assertEquals(v7.pairEntries.size(), v8.pairEntries.size());
+        for (int i = 0; i < v7.pairEntries.size(); ++i) {
+            final PairEntry expected = v7.pairEntries.get(i);
+            final PairEntry actual = v8.pairEntries.get(i);
+            assertEquals(expected.pairs.size(), actual.pairs.size());
+            for (int j = 0; j < expected.pairs.size(); ++j) {
+                assertEquals(expected.pairs.get(j).lang1, actual.pairs.get(j).lang1);
+                assertEquals(expected.pairs.get(j).lang2, actual.pairs.get(j).lang2);
+            }
+        }
+        assertEquals(v7.htmlEntries.size(), v8.htmlEntries.size());
+        for (int i = 0; i < v7.htmlEntries.size(); ++i) {
+            assertEquals(v7.htmlEntries.get(i).title, v8.htmlEntries.get(i).title);
+            assertEquals(v7.htmlEntries.get(i).getHtml(), v8.htmlEntries.get(i).getHtml());
+        }
+
+        assertEquals(v7.indices.size(), v8.indices.size());
+        for (int n = 0; n < v7.indices.size(); ++n) {
+            final Index expected = v7.indices.get(n);
+            final Index actual = v8.indices.get(n);
+            assertEquals(expected.shortName, actual.shortName);
+            assertEquals(expected.stoplist, actual.stoplist);
+            assertEquals(expected.mainTokenCount, actual.mainTokenCount);
+            // Backwards, so that front-coded blocks are not read in order.
+            assertEquals(expected.sortedIndexEntries.size(), actual.sortedIndexEntries.size());
+            for (int i = expected.sortedIndexEntries.size() - 1; i >= 0; --i) {
+                assertEquals(describe(expected.sortedIndexEntries.get(i)),
+                             describe(actual.sortedIndexEntries.get(i)));
+            }
+            assertEquals(expected.rows.size(), actual.rows.size());
+            for (int i = 0; i < expected.rows.size(); ++i) {
+                assertEquals(describe(expected.rows.get(i)), describe(actual.rows.get(i)));
+                assertEquals(expected.rowType(i), actual.rowType(i));
+                assertEquals(expected.rowReference(i), actual.rowReference(i));
+                assertEquals(expected.tokenRowIndex(i), actual.tokenRowIndex(i));
+            }
+            checkSameSearches(expected, actual);
+        }
+    }
+
+    private static void checkSameSearches(final Index expected, final Index actual) {
+        final Random random = new Random(7);
+        for (int n = 0; n < 200; ++n) {
+            final String token = expected.sortedIndexEntries.get(
+                random.nextInt(expected.sortedIndexEntries.size())).token;
+            // The token, a prefix and something just after it.
+            for (final String text : Arrays.asList(token, token.substring(0, 1 + random.nextInt(token.length())),
+                                                   token + "zz")) {
+                assertEquals(actual.shortName + " \"" + text + "\"",
+                             describe(expected.findInsertionPoint(text, new AtomicBoolean())),
+                             describe(actual.findInsertionPoint(text, new AtomicBoolean())));
+                assertEquals(expected.findExact(text) == null, actual.findExact(text) == null);
+            }
+            final StringBuilder expectedRows = new StringBuilder();
+            for (final RowBase row : expected.multiWordSearch(token, Arrays.asList(token), new AtomicBoolean())) {
+                expectedRows.append(describe(row)).append(' ');
+            }
+            final StringBuilder actualRows = new StringBuilder();
+            for (final RowBase row : actual.multiWordSearch(token, Arrays.asList(token), new AtomicBoolean())) {
+                actualRows.append(describe(row)).append(' ');
+            }
+            assertEquals(actual.shortName + " \"" + token + "\"", expectedRows.toString(), actualRows.toString());
+        }
+    }
+
+    @Test
+    public void testAllFlagsLz() throws IOException {
+        checkSameContents(open(options(BlockCodec.LZ, true), "lz.quickdic"));
+    }
+
+    @Test
+    public void testAllFlagsDeflatePreset() throws IOException {
+        checkSameContents(open(options(BlockCodec.DEFLATE_PRESET, true), "preset.quickdic"));
+    }
+}
@@ -0,0 +1,138 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stress test for sharing one Dictionary between threads: runs
+ * findInsertionPoint and multiWordSearch from many threads on one freshly
+ * opened Dictionary and compares every result with a single-threaded run.
+ */
+public class ConcurrentSearchTest {
+
+    private static final int THREADS = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+    private static final int ROUNDS = 2;
+    private static final int QUERIES = 100;
+    private static final int ENTRIES = 5000;
+
+    @ClassRule
+    public static final TemporaryFolder folder = new TemporaryFolder();
+
+    private static File file;
+
+    @BeforeClass
+    public static void writeDictionary() throws Exception {
+        SyntheticDictionary.initTransliterators();
+        file = folder.newFile("stress.quickdic");
+        SyntheticDictionary.write(ENTRIES, ENTRIES / 4, 42, file);
+    }
+
+    private static Dictionary open(final File file) throws IOException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            return new Dictionary(in.getChannel());
+        }
+    }
+
+    // Everything a query returns, as comparable text.
+    private static String run(final Index index, final String query) {
+        final StringBuilder result = new StringBuilder();
+        final Index.IndexEntry entry = index.findInsertionPoint(query, new AtomicBoolean());
+        result.append(entry.token).append('@').append(entry.startRow).append(':');
+        final List<String> tokens = new ArrayList<>(Arrays.asList(query.split(" ")));
+        for (final RowBase row : index.multiWordSearch(query, tokens, new AtomicBoolean())) {
+            result.append(' ').append(row.index()).append('/').append(row.getTokenRow(true).index())
+            .append('/').append(row.getRawText(true).hashCode());
+        }
+        return result.toString();
+    }
+
+    private static List<String> queries(final Dictionary dict, final int count, final long seed) {
+        final Random random = new Random(seed);
+        final List<String> queries = new ArrayList<>();
+        while (queries.size() < count) {
+            final PairEntry entry = dict.pairEntries.get(random.nextInt(dict.pairEntries.size()));
+            final String[] words = entry.pairs.get(0).lang1.split(" ");
+            final int n = 1 + random.nextInt(Math.min(3, words.length));
+            final String[] query = Arrays.copyOf(words, n);
+            query[n - 1] = query[n - 1].substring(0, 1 + random.nextInt(query[n - 1].length()));
+            queries.add(String.join(" ", query));
+        }
+        return queries;
+    }
+
+    @Test
+    public void testConcurrentSearchesMatchSequential() throws Exception {
+        final Dictionary baselineDict = open(file);
+        final List<String> queries = queries(baselineDict, QUERIES, 7);
+        final List<String> expected = new ArrayList<>();
+        for (final String query : queries) {
+            expected.add(run(baselineDict.indices.get(0), query));
+        }
+
+        // Fresh instance, so the threads also race on filling the caches.
+        final Index shared = open(file).indices.get(0);
+        final List<String> mismatches = Collections.synchronizedList(new ArrayList<>());
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; ++t) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    final Random random = new Random(thread);
+                    for (int round = 0; round < ROUNDS; ++round) {
+                        for (int q = 0; q < queries.size(); ++q) {
+                            // Different order in every thread.
+                            final int i = (q * 31 + random.nextInt(queries.size())) % queries.size();
+                            final String result = run(shared, queries.get(i));
+                            if (!result.equals(expected.get(i))) {
+                                mismatches.add("thread " + thread + ": \"" + queries.get(i) + "\"");
+                            }
+                        }
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new AssertionError("Search failed", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(Collections.emptyList(), mismatches);
+    }
+}
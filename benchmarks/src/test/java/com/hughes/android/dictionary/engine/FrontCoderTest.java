@@ -0,0 +1,146 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import com.hughes.util.StringUtil;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Writes index entry tokens with Index.IndexEntry.writeFrontCodedBase,
+ * reset at every block head as DictionaryWriter does, and reads them back
+ * with readFrontCodedBase, starting at each block head.
+ */
+public class FrontCoderTest {
+
+    private static final int BLOCK_SIZE = 8;
+
+    // Shared prefixes that end inside a character ("ö", "ß" and "ü" have
+    // the same first byte), the modified UTF-8 of U+0000, characters of
+    // 3 bytes, surrogate pairs and the empty string.
+    private static final String[] TOKENS = {
+        "wort", "wort", "Wort", "Wörter", "Wörterbuch", "Wöß", "Wüste", "w\u0000rt", "w\u0000", "w",
+        "€uro", "€urop", "€", "😀", "😁a", "", "x", "xylophon", "xylophone", "z",
+    };
+
+    private static final class Token {
+        final String token;
+        final String normalizedToken;
+        final int startRow;
+        final int numRows;
+
+        Token(final String token, final String normalizedToken, final int startRow, final int numRows) {
+            this.token = token;
+            this.normalizedToken = normalizedToken;
+            this.startRow = startRow;
+            this.numRows = numRows;
+        }
+    }
+
+    private static List<Token> tokens() {
+        final Random random = new Random(3);
+        final List<Token> tokens = new ArrayList<>();
+        int startRow = 0;
+        for (int i = 0; i < 5 * TOKENS.length; ++i) {
+            final String token = TOKENS[i % TOKENS.length] + (i >= TOKENS.length ? i / TOKENS.length : "");
+            // With and without a normalized form, so it changes within blocks.
+            final String normalizedToken = random.nextBoolean()
+                                           ? token : token.toLowerCase(Locale.ROOT).replace('ö', 'o');
+            final int numRows = random.nextInt(i % 7 == 0 ? 100000 : 10);
+            tokens.add(new Token(token, normalizedToken, startRow, numRows));
+            startRow += numRows + 1;
+        }
+        return tokens;
+    }
+
+    private static byte[] write(final List<Token> tokens, final int[] blockStarts) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        final FrontCoder.IndexTokens state = new FrontCoder.IndexTokens();
+        for (int i = 0; i < tokens.size(); ++i) {
+            if (i % BLOCK_SIZE == 0) {
+                state.reset();
+                blockStarts[i / BLOCK_SIZE] = out.size();
+            }
+            final Token token = tokens.get(i);
+            Index.IndexEntry.writeFrontCodedBase(out, state, token.token, token.normalizedToken,
+                                                 token.startRow, token.numRows);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testBlocksRoundTrip() throws IOException {
+        final List<Token> tokens = tokens();
+        final int[] blockStarts = new int[(tokens.size() + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        final byte[] bytes = write(tokens, blockStarts);
+        // Every block on its own, as BlockList reads them, last first.
+        for (int block = blockStarts.length - 1; block >= 0; --block) {
+            final DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                bytes, blockStarts[block], bytes.length - blockStarts[block]));
+            final FrontCoder.IndexTokens state = new FrontCoder.IndexTokens();
+            for (int i = block * BLOCK_SIZE; i < Math.min(tokens.size(), (block + 1) * BLOCK_SIZE); ++i) {
+                final Token token = tokens.get(i);
+                Index.IndexEntry.readFrontCodedBase(in, state);
+                assertEquals("token " + i, token.token, state.token.decode());
+                assertEquals("normalized token " + i, token.normalizedToken,
+                             state.hasNormalizedForm ? state.normalizedToken.decode() : state.token.decode());
+                assertEquals(!token.token.equals(token.normalizedToken), state.hasNormalizedForm);
+                assertEquals(token.startRow, StringUtil.readVarInt(in));
+                assertEquals(token.numRows, StringUtil.readVarInt(in));
+            }
+        }
+    }
+
+    @Test
+    public void testSharedPrefixIsNotRepeated() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        final FrontCoder coder = new FrontCoder();
+        coder.write(out, "Wörterbuch");
+        final int first = out.size();
+        coder.write(out, "Wörterbücher");
+        // The shared prefix "Wörterb" is 8 bytes, the rest "ücher" 6.
+        assertEquals(1 + 1 + 6, out.size() - first);
+        coder.reset();
+        final int afterReset = out.size();
+        coder.write(out, "Wörterbücher");
+        assertEquals(1 + 1 + 14, out.size() - afterReset);
+
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        final FrontCoder reader = new FrontCoder();
+        for (final String expected : Arrays.asList("Wörterbuch", "Wörterbücher")) {
+            reader.read(in);
+            assertEquals(expected, reader.decode());
+        }
+        reader.reset();
+        reader.read(in);
+        assertEquals("Wörterbücher", reader.decode());
+    }
+}
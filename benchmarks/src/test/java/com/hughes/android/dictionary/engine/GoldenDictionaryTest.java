@@ -0,0 +1,142 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * Writes a small dictionary with DictionaryWriter, once with sequential
+ * and once with parallel compression, and compares both with the bytes of
+ * golden-v7.quickdic. That file was written by
+ * benchmarks/src/test/make-golden-v7.py straight from dictionary-format.txt,
+ * so this checks the v7 output against the format rather than against an
+ * earlier run of the same code.
+ * Any change here must be made there too, and the file written again.
+ */
+public class GoldenDictionaryTest {
+
+    private static final long CREATION_MILLIS = 1767225600000L; // 2026-01-01
+    private static final int NUM_PAIR_ENTRIES = 150;
+    private static final int NUM_HTML_ENTRIES = 70;
+    private static final int NUM_DE_TOKENS = 100;
+    private static final int NUM_EN_TOKENS = 50;
+
+    private static byte[] golden() throws IOException {
+        try (InputStream in = GoldenDictionaryTest.class.getResourceAsStream("golden-v7.quickdic")) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, n);
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    private static PairEntry pairEntry(final EntrySource source, final int i) {
+        final PairEntry entry = new PairEntry(source);
+        for (int j = 0; j <= i % 3; ++j) {
+            final String lang1 = String.format(Locale.ROOT, i % 5 == 0 ? "Wört%03d %d" : "wort%03d %d", i, j);
+            final String lang2 = String.format(Locale.ROOT, "word%03d %d €", i, j);
+            entry.pairs.add(new PairEntry.Pair(lang1, lang2));
+        }
+        return entry;
+    }
+
+    private static HtmlEntry htmlEntry(final EntrySource source, final int i) {
+        final HtmlEntry entry = new HtmlEntry(source, String.format(Locale.ROOT, "Titel%03d", i));
+        final StringBuilder html = new StringBuilder("<p>Eintrag " + i + " über ");
+        for (int n = 0; n <= i % 4; ++n) {
+            html.append("Wörter und Sätze. ");
+        }
+        entry.html = html.append("</p>").toString();
+        return entry;
+    }
+
+    private static byte[] write(final int compressionThreads) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DictionaryWriter writer = new DictionaryWriter("Golden v7 test dictionary", CREATION_MILLIS,
+                                                            null, compressionThreads, BlockCodec.DEFLATE)) {
+            final EntrySource pairSource = new EntrySource(0, "wiktionary", NUM_PAIR_ENTRIES);
+            final EntrySource htmlSource = new EntrySource(1, "handmade", NUM_HTML_ENTRIES);
+            writer.addSource(pairSource);
+            writer.addSource(htmlSource);
+            for (int i = 0; i < NUM_PAIR_ENTRIES; ++i) {
+                writer.addPairEntry(pairEntry(pairSource, i));
+            }
+            for (int i = 0; i < NUM_HTML_ENTRIES; ++i) {
+                writer.addHtmlEntry(htmlEntry(htmlSource, i));
+            }
+
+            final DictionaryWriter.IndexWriter de = writer.addIndex(
+                "DE", "DE->EN", Language.de, ":: Lower;", false,
+                new TreeSet<>(Arrays.asList("der", "die")), false, false);
+            de.mainTokenCount = NUM_DE_TOKENS;
+            for (int k = 0; k < NUM_DE_TOKENS; ++k) {
+                final int startRow = de.getRowCount();
+                de.addTokenRow(k, true);
+                de.addPairRow(k);
+                if (k + NUM_DE_TOKENS < NUM_PAIR_ENTRIES) {
+                    de.addPairRow(k + NUM_DE_TOKENS);
+                }
+                final int[] htmlEntries = k < NUM_HTML_ENTRIES ? new int[] {k} : new int[0];
+                for (final int htmlEntry : htmlEntries) {
+                    de.addHtmlRow(htmlEntry);
+                }
+                final String token = String.format(Locale.ROOT, k % 5 == 0 ? "Wört%03d" : "wort%03d", k);
+                final String normalizedToken = String.format(Locale.ROOT, "wort%03d", k);
+                de.addIndexEntry(token, normalizedToken, startRow, de.getRowCount() - startRow - 1, htmlEntries);
+            }
+
+            final DictionaryWriter.IndexWriter en = writer.addIndex(
+                "EN", "EN->DE", Language.en, ":: Lower;", true,
+                Collections.singleton("the"), false, false);
+            en.mainTokenCount = NUM_EN_TOKENS;
+            for (int k = 0; k < NUM_EN_TOKENS; ++k) {
+                final int startRow = en.getRowCount();
+                en.addTokenRow(k, true);
+                en.addPairRow(3 * k);
+                final String token = String.format(Locale.ROOT, "word%03d", k);
+                en.addIndexEntry(token, token, startRow, en.getRowCount() - startRow - 1, new int[0]);
+            }
+
+            final DataOutputStream out = new DataOutputStream(bytes);
+            writer.write(out);
+            out.flush();
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testSequentialWriteMatchesGolden() throws IOException {
+        assertArrayEquals(golden(), write(1));
+    }
+
+    @Test
+    public void testParallelWriteMatchesGolden() throws IOException {
+        assertArrayEquals(golden(), write(4));
+    }
+}
@@ -0,0 +1,162 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import com.hughes.util.DataInputBuffer;
+import com.hughes.util.StringUtil;
+import com.hughes.util.raf.RAFListSerializer;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Writes lists with ListWriter and reads them back with BlockList, for
+ * every BlockCodec, i.e. deflate and LZ blocks and deflate blocks with a
+ * trained PresetDictionary, with and without a BlockCache.
+ */
+public class ListWriterTest {
+
+    private static final int BLOCK_SIZE = 16;
+    // Written after each list, to check that reading it ends at the right place.
+    private static final int END_MARKER = 0x454e4421;
+
+    @ClassRule
+    public static final TemporaryFolder folder = new TemporaryFolder();
+
+    private static final RAFListSerializer<String> SERIALIZER = new RAFListSerializer<String>() {
+        @Override
+        public String read(final DataInput in, final int index) throws IOException {
+            return in.readUTF();
+        }
+
+        @Override
+        public void write(final DataOutput out, final String s) throws IOException {
+            out.writeUTF(s);
+        }
+    };
+
+    // Similar small entries, what preset dictionaries are for.
+    private static List<String> elements(final int size) {
+        final Random random = new Random(size);
+        final String[] words = {"Wort", "Wörter", "und", "Sätze", "word", "words", "sentence", "€"};
+        final List<String> elements = new ArrayList<>();
+        for (int i = 0; i < size; ++i) {
+            final StringBuilder element = new StringBuilder(String.format(Locale.ROOT, "%05d", i));
+            for (int n = random.nextInt(6); n > 0; --n) {
+                element.append(' ').append(words[random.nextInt(words.length)]);
+            }
+            elements.add(element.toString());
+        }
+        return elements;
+    }
+
+    private static byte[] write(final List<String> elements, final BlockCodec codec) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        try (BlockCompressor compressor = codec != null ? new BlockCompressor(2, codec) : null;
+             ListWriter writer = new ListWriter(BLOCK_SIZE, compressor, folder.getRoot(), "test")) {
+            for (final String element : elements) {
+                SERIALIZER.write(writer.next(), element);
+            }
+            writer.writeTo(out);
+        }
+        out.writeInt(END_MARKER);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static int flags(final byte[] list) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(list));
+        StringUtil.readVarInt(in);
+        StringUtil.readVarInt(in);
+        return StringUtil.readVarInt(in);
+    }
+
+    private static void checkRoundTrip(final List<String> elements, final BlockCodec codec,
+                                       final int expectedFlags) throws IOException {
+        final byte[] list = write(elements, codec);
+        assertEquals(String.valueOf(codec), expectedFlags, flags(list));
+        for (final BlockCache cache : new BlockCache[] {null, new BlockCache(BlockCache.DEFAULT_BUDGET)}) {
+            final DataInputBuffer in = new DataInputBuffer(ByteBuffer.wrap(list), 0);
+            final List<String> read = BlockList.create(in, SERIALIZER, cache, Dictionary.CURRENT_DICT_VERSION, "test");
+            assertEquals(END_MARKER, in.readInt());
+            assertEquals(elements.size(), read.size());
+            // Backwards, so every block is read starting at some other element.
+            for (int i = elements.size() - 1; i >= 0; --i) {
+                assertEquals(codec + " " + i, elements.get(i), read.get(i));
+            }
+            assertEquals(elements, new ArrayList<>(read));
+        }
+    }
+
+    @Test
+    public void testUncompressed() throws IOException {
+        checkRoundTrip(elements(1000), null, 0);
+    }
+
+    @Test
+    public void testDeflate() throws IOException {
+        checkRoundTrip(elements(1000), BlockCodec.DEFLATE, BlockCodec.DEFLATE.flag);
+    }
+
+    @Test
+    public void testDeflatePreset() throws IOException {
+        checkRoundTrip(elements(1000), BlockCodec.DEFLATE_PRESET,
+                       BlockCodec.DEFLATE.flag | BlockCodec.PRESET_DICTIONARY_FLAG);
+    }
+
+    @Test
+    public void testDeflatePresetTooShort() throws IOException {
+        // Too few blocks to train a dictionary, written as plain deflate.
+        checkRoundTrip(elements(3 * BLOCK_SIZE), BlockCodec.DEFLATE_PRESET, BlockCodec.DEFLATE.flag);
+    }
+
+    @Test
+    public void testLz() throws IOException {
+        checkRoundTrip(elements(1000), BlockCodec.LZ, BlockCodec.LZ.flag);
+    }
+
+    @Test
+    public void testPartialLastBlock() throws IOException {
+        for (final BlockCodec codec : BlockCodec.values()) {
+            checkRoundTrip(elements(10 * BLOCK_SIZE + 3), codec,
+                           codec == BlockCodec.DEFLATE_PRESET
+                           ? BlockCodec.DEFLATE.flag | BlockCodec.PRESET_DICTIONARY_FLAG : codec.flag);
+        }
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        for (final BlockCodec codec : BlockCodec.values()) {
+            checkRoundTrip(new ArrayList<>(), codec, codec.flag);
+        }
+    }
+}
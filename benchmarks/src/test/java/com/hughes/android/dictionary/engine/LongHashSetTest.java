@@ -0,0 +1,125 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares LongHashSet with a HashSet of the same keys while it grows,
+ * for keys that collide in its table, the key 0 it uses for free slots,
+ * and reuse after clear().
+ */
+public class LongHashSetTest {
+
+    private static void check(final LongHashSet set, final Set<Long> expected, final long[] probes) {
+        assertEquals(expected.size(), set.size());
+        for (final long key : expected) {
+            assertTrue(Long.toHexString(key), set.contains(key));
+        }
+        for (final long key : probes) {
+            assertEquals(Long.toHexString(key), expected.contains(key), set.contains(key));
+        }
+    }
+
+    private static void addAndCheck(final LongHashSet set, final long[] keys) {
+        final Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < keys.length; ++i) {
+            assertEquals(Long.toHexString(keys[i]), expected.add(keys[i]), set.add(keys[i]));
+            // Often while it is small, then at every growth.
+            if (i < 100 || Integer.bitCount(i) == 1) {
+                check(set, expected, keys);
+            }
+        }
+        check(set, expected, keys);
+        // Adding them again changes nothing.
+        for (final long key : keys) {
+            assertFalse(set.add(key));
+        }
+        assertEquals(expected.size(), set.size());
+    }
+
+    @Test
+    public void testRandomKeys() {
+        final Random random = new Random(1);
+        final long[] keys = new long[100000];
+        for (int i = 0; i < keys.length; ++i) {
+            // Some duplicates.
+            keys[i] = i > 0 && random.nextInt(10) == 0 ? keys[random.nextInt(i)] : random.nextLong();
+        }
+        addAndCheck(new LongHashSet(), keys);
+    }
+
+    @Test
+    public void testRowKeys() {
+        // What multiWordSearch adds, few types and dense entry indices.
+        final long[] keys = new long[20000];
+        for (int i = 0; i < keys.length; ++i) {
+            keys[i] = RowBase.RowKey.bits(i % 6, i / 6);
+        }
+        addAndCheck(new LongHashSet(), keys);
+    }
+
+    @Test
+    public void testCollisions() {
+        // Keys that only differ in the high bits, or only by multiples of
+        // the table size, and the free slot marker 0.
+        final long[] keys = new long[3000];
+        for (int i = 0; i < 1000; ++i) {
+            keys[i] = (long)i << 48;
+            keys[1000 + i] = 64L * i;
+            keys[2000 + i] = -1L - 1024L * i;
+        }
+        addAndCheck(new LongHashSet(), keys);
+    }
+
+    @Test
+    public void testZero() {
+        final LongHashSet set = new LongHashSet();
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertTrue(set.contains(0));
+        assertFalse(set.add(0));
+        assertEquals(1, set.size());
+        set.clear();
+        assertFalse(set.contains(0));
+        assertEquals(0, set.size());
+    }
+
+    @Test
+    public void testReuseAfterClear() {
+        final LongHashSet set = new LongHashSet();
+        final Random random = new Random(2);
+        for (int round = 0; round < 20; ++round) {
+            final long[] keys = new long[random.nextInt(5000)];
+            for (int i = 0; i < keys.length; ++i) {
+                keys[i] = random.nextInt(10000) - 100;
+            }
+            set.clear();
+            assertEquals(0, set.size());
+            for (final long key : keys) {
+                assertFalse(set.contains(key));
+            }
+            addAndCheck(set, keys);
+        }
+    }
+}
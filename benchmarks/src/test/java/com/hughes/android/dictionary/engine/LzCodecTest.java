@@ -0,0 +1,129 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+
+/**
+ * Compresses blocks with LzCodec and checks that they decompress to the
+ * same bytes, including long literal runs and matches (with extra length
+ * bytes), overlapping matches and matches at the largest offset.
+ */
+public class LzCodecTest {
+
+    private static byte[] decompress(final byte[] compressed) throws IOException, DataFormatException {
+        return LzCodec.decompress(new DataInputStream(new ByteArrayInputStream(compressed)), compressed.length);
+    }
+
+    private static void checkRoundTrip(final byte[] block) throws IOException, DataFormatException {
+        assertArrayEquals(block, decompress(LzCodec.compress(block)));
+    }
+
+    private static byte[] random(final int length, final long seed) {
+        final byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void testShortBlocks() throws IOException, DataFormatException {
+        for (int length = 0; length < 20; ++length) {
+            checkRoundTrip(random(length, length));
+            final byte[] same = new byte[length];
+            Arrays.fill(same, (byte)'a');
+            checkRoundTrip(same);
+        }
+    }
+
+    @Test
+    public void testRepeatedByte() throws IOException, DataFormatException {
+        // Matches with offset 1, much longer than the offset.
+        final byte[] block = new byte[100000];
+        Arrays.fill(block, (byte)7);
+        final byte[] compressed = LzCodec.compress(block);
+        assertTrue(compressed.length < 1000);
+        assertArrayEquals(block, decompress(compressed));
+    }
+
+    @Test
+    public void testRandom() throws IOException, DataFormatException {
+        // No matches, only literals.
+        checkRoundTrip(random(15, 1));
+        checkRoundTrip(random(15 + 255, 2));
+        checkRoundTrip(random(100000, 3));
+    }
+
+    @Test
+    public void testText() throws IOException, DataFormatException {
+        final StringBuilder text = new StringBuilder();
+        final Random random = new Random(4);
+        final String[] words = {"Wort", "Wörter", "und", "Sätze", "word", "words", "sentence", "€"};
+        while (text.length() < 50000) {
+            text.append(words[random.nextInt(words.length)]).append(random.nextInt(3) == 0 ? ". " : " ");
+        }
+        final byte[] block = text.toString().getBytes(StandardCharsets.UTF_8);
+        final byte[] compressed = LzCodec.compress(block);
+        assertTrue(compressed.length < block.length / 2);
+        assertArrayEquals(block, decompress(compressed));
+    }
+
+    @Test
+    public void testLargestOffset() throws IOException, DataFormatException {
+        // The same random bytes 65535 and 65536 bytes apart, only the
+        // first can be a match.
+        final byte[] part = random(1000, 5);
+        for (final int distance : new int[] {65535, 65536}) {
+            final byte[] block = new byte[distance + part.length];
+            System.arraycopy(part, 0, block, 0, part.length);
+            Arrays.fill(block, part.length, distance, (byte)' ');
+            System.arraycopy(part, 0, block, distance, part.length);
+            checkRoundTrip(block);
+        }
+    }
+
+    @Test
+    public void testCorruptBlocks() throws IOException, DataFormatException {
+        final byte[] block = "Wörter und Sätze, Wörter und Sätze, Wörter.".getBytes(StandardCharsets.UTF_8);
+        final byte[] compressed = LzCodec.compress(block);
+        assertArrayEquals(block, decompress(compressed));
+        for (int length = 0; length < compressed.length; ++length) {
+            try {
+                decompress(Arrays.copyOf(compressed, length));
+                fail("Truncated to " + length + " bytes");
+            } catch (DataFormatException | IOException e) {
+                // Expected.
+            }
+        }
+        final byte[] trailing = Arrays.copyOf(compressed, compressed.length + 1);
+        try {
+            decompress(trailing);
+            fail("Trailing byte");
+        } catch (DataFormatException e) {
+            // Expected.
+        }
+    }
+}
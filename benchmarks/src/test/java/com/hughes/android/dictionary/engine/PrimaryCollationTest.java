@@ -0,0 +1,114 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that whenever PrimaryCollation decides a comparison, it agrees
+ * with the collator of the language, for the languages of the shipped
+ * dictionaries and words with expansions (e.g. "ß", "æ"), contractions
+ * (e.g. Czech "ch", Spanish "ll"), accents, case and dashes.
+ */
+public class PrimaryCollationTest {
+
+    // As in IsoUtils.
+    private static final String[] LANGUAGES = {
+        "AF", "SQ", "AR", "HY", "BE", "BN", "BS", "BG", "MY", "ZH", "CA", "HR", "CS", "DA", "NL", "EN",
+        "EO", "ET", "FI", "FR", "DE", "EL", "HE", "HI", "HU", "IS", "ID", "GA", "GD", "GV", "IT", "LA",
+        "LV", "LT", "JA", "KO", "KU", "MS", "MI", "MN", "NE", "NO", "FA", "PL", "PT", "PA", "RO", "RU",
+        "SA", "SR", "SK", "SL", "SO", "ES", "SW", "SV", "TL", "TG", "TH", "BO", "TR", "UK", "UR", "VI",
+        "CI", "YI", "ZU", "AZ", "EU", "BR", "MR", "FO", "GL", "KA", "HT", "LB", "MK", "LO", "ML", "TA",
+        "SH", "SD",
+    };
+
+    private static final String[] WORDS = {
+        "", "a", "A", "ab", "Ab", "AB", "a-b", "ä", "ae", "Ä", "æ", "Æ", "æble", "aeble", "å", "aa", "az",
+        "c", "č", "ch", "chleba", "cz", "ci", "cizí", "cs", "d", "dz", "dzs", "e", "é", "é", "è", "ê",
+        "gy", "h", "hrad", "haus", "haus-boot", "hausboot", "hä", "i", "ı", "İ", "ij", "y", "l", "ł", "ll",
+        "lz", "ly", "n", "ñ", "ñu", "nz", "o", "ö", "oe", "ø", "øl", "ő", "œ", "œuvre", "oeuvre", "s", "š",
+        "ş", "ss", "ß", "ẞ", "straße", "strasse", "strasze", "t", "þorn", "thorn", "u", "ü", "ue", "z", "ž",
+        "0", "1", "10", "9", "'s", "o'clock", "άλφα", "αλφα", "ωμέγα", "ёлка", "елка", "жук", "ў", "ґ",
+        "かな", "カナ", "漢字", "中文", "한국어", "ภาษา", "עברית", "عربي", "हिन्दी",
+    };
+
+    // Words made of the characters above, to also get their combinations.
+    private static List<String> words() {
+        final List<String> words = new ArrayList<>(Arrays.asList(WORDS));
+        final StringBuilder alphabet = new StringBuilder();
+        for (final String word : WORDS) {
+            alphabet.append(word);
+        }
+        final Random random = new Random(5);
+        while (words.size() < 2 * WORDS.length) {
+            final StringBuilder word = new StringBuilder();
+            for (int n = 1 + random.nextInt(6); n > 0; --n) {
+                word.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    private static void check(final Language language, final boolean withoutDash, final List<String> words) {
+        final Comparator<Object> collator = language.getCollator();
+        int decided = 0;
+        for (final String a : words) {
+            final PrimaryCollation primary = PrimaryCollation.create(collator, a, withoutDash);
+            assertNotNull(language.getIsoCode(), primary);
+            for (final String b : words) {
+                final int result = primary.compare(b);
+                if (result == 0) {
+                    continue;
+                }
+                ++decided;
+                final int expected = withoutDash
+                        ? collator.compare(NormalizeComparator.withoutDash(a), NormalizeComparator.withoutDash(b))
+                        : collator.compare(a, b);
+                assertEquals(language.getIsoCode() + ": \"" + a + "\" vs \"" + b + "\"",
+                             Integer.signum(expected), Integer.signum(result));
+            }
+        }
+        // Otherwise the test would not show much.
+        assertTrue(language.getIsoCode() + " decided only " + decided,
+                   decided > words.size() * words.size() / 2);
+    }
+
+    @Test
+    public void testAgreesWithCollator() {
+        final List<String> words = words();
+        for (final String isoCode : LANGUAGES) {
+            check(Language.lookup(isoCode), false, words);
+        }
+    }
+
+    @Test
+    public void testAgreesWithCollatorWithoutDash() {
+        final List<String> words = words();
+        for (final String isoCode : LANGUAGES) {
+            check(Language.lookup(isoCode), true, words);
+        }
+    }
+}
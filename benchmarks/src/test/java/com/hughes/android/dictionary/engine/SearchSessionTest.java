@@ -0,0 +1,137 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Types queries into an Index.SearchSession one character at a time, with
+ * some backspaces, and checks that every search of the session returns the
+ * same rows in the same order as a fresh search for the same text.
+ */
+public class SearchSessionTest {
+
+    private static final int QUERIES = 60;
+    private static final int ENTRIES = 5000;
+
+    @ClassRule
+    public static final TemporaryFolder folder = new TemporaryFolder();
+
+    private static Dictionary dict;
+
+    @BeforeClass
+    public static void openDictionary() throws Exception {
+        SyntheticDictionary.initTransliterators();
+        final File file = folder.newFile("session.quickdic");
+        SyntheticDictionary.write(ENTRIES, ENTRIES / 4, 42, file);
+        try (FileInputStream in = new FileInputStream(file)) {
+            dict = new Dictionary(in.getChannel());
+        }
+    }
+
+    private static List<String> tokens(final String text) {
+        return new ArrayList<>(Arrays.asList(text.trim().split(" +")));
+    }
+
+    private static String describe(final List<RowBase> rows) {
+        final StringBuilder result = new StringBuilder();
+        for (final RowBase row : rows) {
+            result.append(row.getClass().getSimpleName()).append('#').append(row.index()).append(' ');
+        }
+        return result.toString();
+    }
+
+    // What a user types for the query: every prefix, with a mistake
+    // corrected by backspace now and then.
+    private static List<String> keystrokes(final String query, final Random random) {
+        final List<String> texts = new ArrayList<>();
+        for (int i = 1; i <= query.length(); ++i) {
+            if (i > 1 && random.nextInt(5) == 0) {
+                texts.add(query.substring(0, i - 1) + "x");
+            }
+            texts.add(query.substring(0, i));
+        }
+        return texts;
+    }
+
+    private static List<String> queries(final Random random) {
+        final List<String> queries = new ArrayList<>();
+        while (queries.size() < QUERIES) {
+            final PairEntry entry = dict.pairEntries.get(random.nextInt(dict.pairEntries.size()));
+            final String[] words = entry.pairs.get(0).lang1.split(" ");
+            // The later words are often typed first.
+            final List<String> query = new ArrayList<>(Arrays.asList(words).subList(0, Math.min(3, words.length)));
+            if (random.nextBoolean()) {
+                Collections.reverse(query);
+            }
+            queries.add(String.join(" ", query));
+        }
+        return queries;
+    }
+
+    private void checkRefinedMatchesFresh(final ForkJoinPool pool, final int maxResults) {
+        final Random random = new Random(11);
+        for (final Index index : dict.indices) {
+            for (final String query : queries(random)) {
+                final Index.SearchSession session = index.newSearchSession();
+                for (final String text : keystrokes(query, random)) {
+                    if (text.trim().isEmpty()) {
+                        continue;
+                    }
+                    final List<RowBase> fresh = index.multiWordSearch(text, tokens(text), new AtomicBoolean(),
+                                                                      pool, maxResults);
+                    final List<RowBase> refined = session.multiWordSearch(text, tokens(text), new AtomicBoolean(),
+                                                                          pool, maxResults);
+                    assertEquals(index.shortName + " \"" + text + "\"", describe(fresh), describe(refined));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRefinedSearchMatchesFreshSearch() {
+        checkRefinedMatchesFresh(null, Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testRefinedParallelSearchMatchesFreshSearch() {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            checkRefinedMatchesFresh(pool, Integer.MAX_VALUE);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testRefinedSearchWithLimitMatchesFreshSearch() {
+        checkRefinedMatchesFresh(null, 20);
+    }
+}
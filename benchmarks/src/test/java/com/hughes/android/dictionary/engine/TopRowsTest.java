@@ -0,0 +1,166 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Checks Index.TopRows against a stable sort by length of all the offered
+ * rows, with many rows of the same length, and multiWordSearch with a
+ * limit against the same search without one.
+ */
+public class TopRowsTest {
+
+    @ClassRule
+    public static final TemporaryFolder folder = new TemporaryFolder();
+
+    private static Dictionary dict;
+
+    @BeforeClass
+    public static void openDictionary() throws Exception {
+        SyntheticDictionary.initTransliterators();
+        final File file = folder.newFile("toprows.quickdic");
+        SyntheticDictionary.write(5000, 1250, 42, file);
+        try (FileInputStream in = new FileInputStream(file)) {
+            dict = new Dictionary(in.getChannel());
+        }
+    }
+
+    private static void checkAgainstSort(final int capacity, final int numRows, final int maxLength,
+                                         final Random random) {
+        final List<RowBase> rows = new ArrayList<>();
+        final int[] lengths = new int[numRows];
+        final Index.TopRows top = new Index.TopRows(capacity);
+        for (int i = 0; i < numRows; ++i) {
+            final RowBase row = new TokenRow(i, i, null, true);
+            rows.add(row);
+            lengths[i] = random.nextInt(maxLength);
+            top.offer(row, lengths[i]);
+        }
+        assertEquals(Math.min(capacity, numRows), top.size());
+
+        final List<RowBase> expected = new ArrayList<>(rows);
+        // Stable, so rows of the same length stay in the order offered.
+        expected.sort(Comparator.comparingInt(row -> lengths[row.index()]));
+        final List<RowBase> actual = new ArrayList<>();
+        top.addSortedTo(actual);
+        assertEquals("capacity " + capacity + ", rows " + numRows + ", lengths < " + maxLength,
+                     expected.subList(0, Math.min(capacity, numRows)), actual);
+        assertEquals(0, top.size());
+    }
+
+    @Test
+    public void testAgreesWithSort() {
+        final Random random = new Random(1);
+        for (final int capacity : new int[] {1, 2, 3, 10, 16, 17, 100}) {
+            for (final int numRows : new int[] {0, 1, 5, 16, 17, 100, 1000}) {
+                // All the same length, many ties, and hardly any.
+                for (final int maxLength : new int[] {1, 4, 1000000}) {
+                    checkAgainstSort(capacity, numRows, maxLength, random);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSortedInput() {
+        // Each new row is longer, or shorter, than all the kept ones.
+        for (final boolean ascending : new boolean[] {true, false}) {
+            final Index.TopRows top = new Index.TopRows(10);
+            final List<RowBase> rows = new ArrayList<>();
+            for (int i = 0; i < 100; ++i) {
+                final RowBase row = new TokenRow(i, i, null, true);
+                rows.add(row);
+                top.offer(row, ascending ? i : 100 - i);
+            }
+            final List<RowBase> actual = new ArrayList<>();
+            top.addSortedTo(actual);
+            final List<RowBase> expected = new ArrayList<>(ascending ? rows.subList(0, 10) : rows.subList(90, 100));
+            if (!ascending) {
+                Collections.reverse(expected);
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    private static String describe(final List<RowBase> rows) {
+        final StringBuilder result = new StringBuilder();
+        for (final RowBase row : rows) {
+            result.append(row.getClass().getSimpleName()).append('#').append(row.index()).append(' ');
+        }
+        return result.toString();
+    }
+
+    // Whether rows are among all, in the same order.
+    private static boolean isSubsequence(final List<RowBase> rows, final List<RowBase> all) {
+        int i = 0;
+        for (final RowBase row : all) {
+            if (i < rows.size() && rows.get(i).index() == row.index()) {
+                ++i;
+            }
+        }
+        return i == rows.size();
+    }
+
+    @Test
+    public void testSearchLimitAgreesWithFullSearch() {
+        final Random random = new Random(3);
+        for (final Index index : dict.indices) {
+            for (int n = 0; n < 100; ++n) {
+                final PairEntry entry = dict.pairEntries.get(random.nextInt(dict.pairEntries.size()));
+                final String[] words = (index.swapPairEntries ? entry.pairs.get(0).lang2
+                                        : entry.pairs.get(0).lang1).split(" ");
+                // One word, often with many rows of the same length, or two.
+                final List<String> tokens = new ArrayList<>(
+                    Arrays.asList(words).subList(0, Math.min(2, words.length)));
+                final String text = String.join(" ", tokens);
+                final List<RowBase> all = index.multiWordSearch(text, new ArrayList<>(tokens), new AtomicBoolean());
+                for (final int maxResults : new int[] {1, 5, 20, all.size(), all.size() + 1}) {
+                    if (maxResults == 0) {
+                        continue;
+                    }
+                    final List<RowBase> top = index.multiWordSearch(text, new ArrayList<>(tokens),
+                                                                    new AtomicBoolean(), null, maxResults);
+                    final String message = index.shortName + " \"" + text + "\", " + maxResults;
+                    if (maxResults >= all.size()) {
+                        // Nothing to stop early for.
+                        assertEquals(message, describe(all), describe(top));
+                    } else {
+                        // Stopping early can miss rows that sort before the
+                        // returned ones, but not change their order.
+                        assertEquals(message, maxResults, top.size());
+                        assertTrue(message + ": " + describe(top), isSubsequence(top, all));
+                    }
+                }
+            }
+        }
+    }
+}
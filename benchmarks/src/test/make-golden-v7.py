@@ -0,0 +1,184 @@
+#!/usr/bin/env python3
+# Copyright 2026 Reimar Döffinger. All Rights Reserved.
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#     http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+
+# Writes the fixture of GoldenDictionaryTest, the dictionary it builds
+# with DictionaryWriter, encoded straight from dictionary-format.txt
+# without any of the Java code, so the test compares against the format
+# and not against the writer itself.
+# Usage: benchmarks/src/test/make-golden-v7.py > benchmarks/src/test/resources/com/hughes/android/dictionary/engine/golden-v7.quickdic
+
+import struct
+import sys
+import zlib
+
+CREATION_MILLIS = 1767225600000  # 2026-01-01
+DICT_INFO = "Golden v7 test dictionary"
+NUM_PAIR_ENTRIES = 150
+NUM_HTML_ENTRIES = 70
+NUM_DE_TOKENS = 100
+NUM_EN_TOKENS = 50
+
+# Row types, see [row].
+ROW_PAIR = 1
+ROW_TOKEN = 2
+ROW_HTML = 5
+
+
+def var_int(value):
+    if 0 <= value < 0x80:
+        return struct.pack(">B", value)
+    if 0 <= value < 0x4000:
+        return struct.pack(">H", value + 0x8000)
+    if 0 <= value < 0x200000:
+        return struct.pack(">I", value + 0xC00000)[1:]
+    if 0 <= value < 0x10000000:
+        return struct.pack(">I", value + 0xE0000000)
+    return b"\xf0" + struct.pack(">i", value)
+
+
+def mutf8(text):
+    out = bytearray()
+    units = text.encode("utf-16-be")
+    for pos in range(0, len(units), 2):
+        code = (units[pos] << 8) | units[pos + 1]
+        if 0 < code < 0x80:
+            out.append(code)
+        elif code < 0x800:
+            out += bytes([0xC0 | (code >> 6), 0x80 | (code & 0x3F)])
+        else:
+            out += bytes([0xE0 | (code >> 12), 0x80 | ((code >> 6) & 0x3F), 0x80 | (code & 0x3F)])
+    return bytes(out)
+
+
+def string(text):
+    data = mutf8(text)
+    return struct.pack(">H", len(data)) + data
+
+
+def deflate(data):
+    compressor = zlib.compressobj(9, zlib.DEFLATED, -15)
+    return compressor.compress(data) + compressor.flush()
+
+
+def list_of(elements, block_size, compressed):
+    blocks = []
+    for start in range(0, len(elements), block_size):
+        block = b"".join(elements[start:start + block_size])
+        blocks.append(deflate(block) if compressed else block)
+    toc_size = 4 * (len(blocks) + 1)
+    offsets = []
+    offset = toc_size
+    for block in blocks:
+        offsets.append(offset)
+        offset += len(block)
+    offsets.append(offset)
+    return (var_int(len(elements)) + var_int(block_size) + var_int(1 if compressed else 0)
+            + b"".join(struct.pack(">i", o) for o in offsets) + b"".join(blocks))
+
+
+def row(row_type, index):
+    return struct.pack(">BH", (row_type << 5) + (index >> 16), index & 0xFFFF)
+
+
+# The same content as GoldenDictionaryTest.
+
+def pairs(i):
+    result = []
+    for j in range(1 + i % 3):
+        lang1 = "Wört%03d %d" % (i, j) if i % 5 == 0 else "wort%03d %d" % (i, j)
+        lang2 = "word%03d %d €" % (i, j)
+        result.append((lang1, lang2))
+    return result
+
+
+def html(i):
+    return "<p>Eintrag %d über " % i + "Wörter und Sätze. " * (1 + i % 4) + "</p>"
+
+
+def de_token(k):
+    return "Wört%03d" % k if k % 5 == 0 else "wort%03d" % k
+
+
+def de_normalized(k):
+    return "wort%03d" % k
+
+
+def en_token(k):
+    return "word%03d" % k
+
+
+def index_entry(token, normalized, start_row, num_rows, html_entries):
+    result = string(token) + var_int(start_row) + var_int(num_rows)
+    if token != normalized:
+        result += b"\x01" + string(normalized)
+    else:
+        result += b"\x00"
+    result += var_int(len(html_entries))
+    for h in html_entries:
+        result += var_int(h)
+    return result
+
+
+def index(short_name, long_name, iso_code, rules, swap, stoplist, tokens):
+    entries = []
+    rows = []
+    for k, (token, normalized, pair_rows, html_rows) in enumerate(tokens):
+        start_row = len(rows)
+        rows.append(row(ROW_TOKEN, k))
+        rows += [row(ROW_PAIR, p) for p in pair_rows]
+        rows += [row(ROW_HTML, h) for h in html_rows]
+        entries.append(index_entry(token, normalized, start_row, len(rows) - start_row - 1, html_rows))
+    return (string(short_name) + string(long_name) + string(iso_code) + string(rules)
+            + (b"\x01" if swap else b"\x00") + struct.pack(">i", len(tokens))
+            + list_of(entries, 32, True)
+            + var_int(len(stoplist)) + b"".join(string(w) for w in stoplist)
+            + struct.pack(">ii", len(rows), 3) + b"".join(rows))
+
+
+def dictionary():
+    sources = [string("wiktionary") + struct.pack(">i", NUM_PAIR_ENTRIES),
+               string("handmade") + struct.pack(">i", NUM_HTML_ENTRIES)]
+    pair_entries = []
+    for i in range(NUM_PAIR_ENTRIES):
+        p = pairs(i)
+        pair_entries.append(var_int(0) + var_int(len(p))
+                            + b"".join(string(a) + string(b) for a, b in p))
+    html_entries = [var_int(1) + string("Titel%03d" % i) for i in range(NUM_HTML_ENTRIES)]
+    html_data = []
+    for i in range(NUM_HTML_ENTRIES):
+        data = html(i).encode("utf-8")
+        html_data.append(var_int(len(data)) + data)
+
+    de_tokens = []
+    for k in range(NUM_DE_TOKENS):
+        pair_rows = [k] + ([k + NUM_DE_TOKENS] if k + NUM_DE_TOKENS < NUM_PAIR_ENTRIES else [])
+        html_rows = [k] if k < NUM_HTML_ENTRIES else []
+        de_tokens.append((de_token(k), de_normalized(k), pair_rows, html_rows))
+    en_tokens = [(en_token(k), en_token(k), [3 * k], []) for k in range(NUM_EN_TOKENS)]
+    indices = [index("DE", "DE->EN", "DE", ":: Lower;", False, ["der", "die"], de_tokens),
+               index("EN", "EN->DE", "EN", ":: Lower;", True, ["the"], en_tokens)]
+
+    return (struct.pack(">iq", 7, CREATION_MILLIS) + string(DICT_INFO)
+            + list_of(sources, 1, False)
+            + list_of(pair_entries, 64, True)
+            + list_of([], 1, False)
+            + list_of(html_entries, 64, True)
+            + list_of(html_data, 128, True)
+            + list_of(indices, 1, False)
+            + string("END OF DICTIONARY"))
+
+
+if __name__ == "__main__":
+    sys.stdout.buffer.write(dictionary())
@@ -0,0 +1,373 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.server;
+
+import com.hughes.android.dictionary.engine.Dictionary;
+import com.hughes.android.dictionary.engine.HtmlEntry;
+import com.hughes.android.dictionary.engine.Index;
+import com.hughes.android.dictionary.engine.PairEntry;
+import com.hughes.android.dictionary.engine.RowBase;
+import com.hughes.android.dictionary.engine.TokenRow;
+import com.hughes.android.dictionary.engine.TransliteratorManager;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Serves lookups in a set of .quickdic files as JSON over HTTP.
+ * <p>
+ * Each Dictionary is opened once and shared by all request threads.
+ * Every request gets a deadline, when it passes the AtomicBoolean the
+ * engine polls is set and the response has "interrupted": true.
+ * An interrupted search returns nothing, so /search then has no rows,
+ * and /find no token or only some of its rows.
+ * <p>
+ * Endpoints, all GET:
+ * <ul>
+ * <li>/dictionaries: the loaded dictionaries and their indices.
+ * <li>/find?dict=D&amp;index=I&amp;q=TEXT[&amp;limit=N][&amp;timeout=MS]:
+ * Index.findInsertionPoint, with the rows starting at that token.
+ * 400 if there is no such position, e.g. for an empty index.
+ * <li>/search?dict=D&amp;index=I&amp;q=TEXT[&amp;limit=N][&amp;timeout=MS]:
+ * Index.multiWordSearch for the first limit rows only, so "total" is
+ * at most limit.
+ * </ul>
+ */
+public final class DictionaryServer {
+
+    private static final int DEFAULT_TIMEOUT_MILLIS = 2000;
+    private static final int MAX_TIMEOUT_MILLIS = 30000;
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 1000;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Map<String, Dictionary> dictionaries;
+    private final int defaultTimeoutMillis;
+    private final ScheduledExecutorService deadlines = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "search deadlines");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final class HttpError extends Exception {
+        final int status;
+
+        HttpError(final int status, final String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private DictionaryServer(final Map<String, Dictionary> dictionaries, final int defaultTimeoutMillis) {
+        this.dictionaries = dictionaries;
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+    }
+
+    private interface JsonHandler {
+        void handle(Map<String, String> params, JsonWriter json) throws HttpError;
+    }
+
+    private HttpHandler handler(final JsonHandler jsonHandler) {
+        return exchange -> {
+            int status = 200;
+            JsonWriter json = new JsonWriter();
+            try {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    throw new HttpError(405, "Only GET is supported");
+                }
+                jsonHandler.handle(parseQuery(exchange.getRequestURI().getRawQuery()), json);
+            } catch (HttpError e) {
+                status = e.status;
+                json = new JsonWriter().beginObject().name("error").value(e.getMessage()).endObject();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                status = 500;
+                json = new JsonWriter().beginObject().name("error").value(e.toString()).endObject();
+            }
+            respond(exchange, status, json.toString());
+        };
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final String body)
+    throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(final String rawQuery) throws HttpError {
+        final Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        try {
+            for (final String param : rawQuery.split("&")) {
+                final int eq = param.indexOf('=');
+                if (eq != -1) {
+                    params.put(URLDecoder.decode(param.substring(0, eq), "UTF-8"),
+                               URLDecoder.decode(param.substring(eq + 1), "UTF-8"));
+                }
+            }
+        } catch (IllegalArgumentException | UnsupportedEncodingException e) {
+            throw new HttpError(400, "Invalid query string");
+        }
+        return params;
+    }
+
+    private static String required(final Map<String, String> params, final String name) throws HttpError {
+        final String value = params.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new HttpError(400, "Missing parameter " + name);
+        }
+        return value.trim();
+    }
+
+    private static int intParam(final Map<String, String> params, final String name, final int defaultValue,
+                                final int max) throws HttpError {
+        final String value = params.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(0, Math.min(max, Integer.parseInt(value)));
+        } catch (NumberFormatException e) {
+            throw new HttpError(400, "Invalid number for " + name + ": " + value);
+        }
+    }
+
+    private Index index(final Map<String, String> params) throws HttpError {
+        final String dictName = required(params, "dict");
+        final Dictionary dict = dictionaries.get(dictName);
+        if (dict == null) {
+            throw new HttpError(404, "Unknown dictionary " + dictName);
+        }
+        final String indexName = required(params, "index");
+        for (final Index index : dict.indices) {
+            if (index.shortName.equalsIgnoreCase(indexName)) {
+                return index;
+            }
+        }
+        throw new HttpError(404, "Unknown index " + indexName + " in " + dictName);
+    }
+
+    /**
+     * Runs search with an interrupt flag that is set when the request's deadline passes.
+     */
+    private void withDeadline(final Map<String, String> params, final JsonWriter json,
+                              final SearchBody search) throws HttpError {
+        final int timeoutMillis = intParam(params, "timeout", defaultTimeoutMillis, MAX_TIMEOUT_MILLIS);
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        final ScheduledFuture<?> deadline = deadlines.schedule(() -> interrupted.set(true),
+                                            timeoutMillis, TimeUnit.MILLISECONDS);
+        final long start = System.nanoTime();
+        json.beginObject();
+        try {
+            search.run(interrupted);
+        } finally {
+            deadline.cancel(false);
+        }
+        json.name("interrupted").value(interrupted.get());
+        json.name("micros").value((System.nanoTime() - start) / 1000);
+        json.endObject();
+    }
+
+    private interface SearchBody {
+        void run(AtomicBoolean interrupted) throws HttpError;
+    }
+
+    private void dictionaries(final Map<String, String> params, final JsonWriter json) {
+        json.beginArray();
+        for (final Map.Entry<String, Dictionary> entry : dictionaries.entrySet()) {
+            json.beginObject();
+            json.name("name").value(entry.getKey());
+            json.name("info").value(entry.getValue().dictInfo);
+            json.name("indices").beginArray();
+            for (final Index index : entry.getValue().indices) {
+                json.beginObject();
+                json.name("name").value(index.shortName);
+                json.name("longName").value(index.longName);
+                json.name("language").value(index.sortLanguage.getIsoCode());
+                json.name("tokens").value(index.sortedIndexEntries.size());
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+        json.endArray();
+    }
+
+    private void find(final Map<String, String> params, final JsonWriter json) throws HttpError {
+        final Index index = index(params);
+        final String text = WHITESPACE.matcher(required(params, "q")).replaceAll(" ");
+        final int limit = intParam(params, "limit", DEFAULT_LIMIT, MAX_LIMIT);
+        if (index.sortedIndexEntries.isEmpty()) {
+            throw new HttpError(400, "Index " + index.shortName + " has no entries");
+        }
+        withDeadline(params, json, interrupted -> {
+            final Index.IndexEntry entry = index.findInsertionPoint(text, interrupted);
+            if (entry != null && entry.startRow >= index.rows.size()) {
+                throw new HttpError(400, "No position in index " + index.shortName + " for: " + text);
+            }
+            json.name("token").value(entry != null ? entry.token : null);
+            json.name("rows").beginArray();
+            if (entry != null) {
+                final int end = Math.min(index.rows.size(), entry.startRow + limit);
+                for (int i = entry.startRow; i < end && !interrupted.get(); ++i) {
+                    writeRow(json, index.rows.get(i));
+                }
+            }
+            json.endArray();
+        });
+    }
+
+    private void search(final Map<String, String> params, final JsonWriter json) throws HttpError {
+        final Index index = index(params);
+        final String text = WHITESPACE.matcher(required(params, "q")).replaceAll(" ");
+        final int limit = intParam(params, "limit", DEFAULT_LIMIT, MAX_LIMIT);
+        withDeadline(params, json, interrupted -> {
+            // multiWordSearch normalizes the tokens in place.
+            final List<String> tokens = new ArrayList<>(Arrays.asList(WHITESPACE.split(text)));
+            // Only the first limit rows are kept and sorted.
+            final List<RowBase> rows = index.multiWordSearch(text, tokens, interrupted, null, limit);
+            json.name("total").value(rows.size());
+            json.name("rows").beginArray();
+            for (int i = 0; i < rows.size() && i < limit; ++i) {
+                writeRow(json, rows.get(i));
+            }
+            json.endArray();
+        });
+    }
+
+    private static void writeRow(final JsonWriter json, final RowBase row) {
+        json.beginObject();
+        if (row instanceof TokenRow) {
+            json.name("type").value("token");
+            json.name("token").value(((TokenRow) row).getToken());
+        } else {
+            final TokenRow tokenRow = row.getTokenRow(true);
+            if (tokenRow != null) {
+                json.name("token").value(tokenRow.getToken());
+            }
+            if (row instanceof PairEntry.Row) {
+                json.name("type").value("pair");
+                json.name("pairs").beginArray();
+                for (final PairEntry.Pair pair : ((PairEntry.Row) row).getEntry().pairs) {
+                    json.beginArray().value(pair.lang1).value(pair.lang2).endArray();
+                }
+                json.endArray();
+            } else if (row instanceof HtmlEntry.Row) {
+                json.name("type").value("html");
+                json.name("title").value(((HtmlEntry.Row) row).getEntry().title);
+            } else {
+                json.name("type").value("text");
+                json.name("text").value(row.getRawText(false));
+            }
+        }
+        json.endObject();
+    }
+
+    private static ExecutorService newExecutor(final String threads) {
+        if ("virtual".equals(threads)) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("--threads=virtual needs Java 21 or newer");
+            }
+        }
+        return Executors.newFixedThreadPool(Integer.parseInt(threads));
+    }
+
+    private static String dictionaryName(final File file) {
+        final String name = file.getName();
+        return name.endsWith(".quickdic") ? name.substring(0, name.length() - ".quickdic".length()) : name;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        String bind = "127.0.0.1";
+        int port = 8080;
+        String threads = Integer.toString(2 * Runtime.getRuntime().availableProcessors());
+        int timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+        final List<File> files = new ArrayList<>();
+        for (final String arg : args) {
+            if (arg.startsWith("--bind=")) {
+                bind = arg.substring("--bind=".length());
+            } else if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            } else if (arg.startsWith("--threads=")) {
+                threads = arg.substring("--threads=".length());
+            } else if (arg.startsWith("--timeout=")) {
+                timeoutMillis = Integer.parseInt(arg.substring("--timeout=".length()));
+            } else if (arg.startsWith("--")) {
+                System.err.println("Unknown option " + arg);
+                System.err.println("Usage: [--bind=ADDRESS] [--port=N] [--threads=N|virtual] [--timeout=MS]"
+                                   + " FILE.quickdic...");
+                System.exit(1);
+            } else {
+                files.add(new File(arg));
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("No dictionaries given");
+            System.exit(1);
+        }
+
+        while (!TransliteratorManager.init(null, null)) {
+            Thread.sleep(10);
+        }
+        final Map<String, Dictionary> dictionaries = new LinkedHashMap<>();
+        for (final File file : files) {
+            final long start = System.currentTimeMillis();
+            // The mapping stays valid after the channel is closed.
+            try (FileInputStream in = new FileInputStream(file)) {
+                dictionaries.put(dictionaryName(file), new Dictionary(in.getChannel()));
+            }
+            System.out.println("Opened " + file + " in " + (System.currentTimeMillis() - start) + " ms");
+        }
+
+        final DictionaryServer server = new DictionaryServer(dictionaries, timeoutMillis);
+        final HttpServer httpServer = HttpServer.create(new InetSocketAddress(bind, port), 0);
+        httpServer.createContext("/dictionaries", server.handler(server::dictionaries));
+        httpServer.createContext("/find", server.handler(server::find));
+        httpServer.createContext("/search", server.handler(server::search));
+        httpServer.setExecutor(newExecutor(threads));
+        httpServer.start();
+        System.out.println("Listening on " + httpServer.getAddress());
+    }
+}
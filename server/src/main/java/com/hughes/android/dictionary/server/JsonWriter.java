@@ -0,0 +1,127 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.server;
+
+/**
+ * Minimal streaming JSON writer, enough for the server responses
+ * without pulling in a JSON library.
+ */
+final class JsonWriter {
+
+    private final StringBuilder out = new StringBuilder();
+    // Whether a value has been written in the current object/array.
+    private boolean needComma;
+
+    JsonWriter beginObject() {
+        separator();
+        out.append('{');
+        needComma = false;
+        return this;
+    }
+
+    JsonWriter endObject() {
+        out.append('}');
+        needComma = true;
+        return this;
+    }
+
+    JsonWriter beginArray() {
+        separator();
+        out.append('[');
+        needComma = false;
+        return this;
+    }
+
+    JsonWriter endArray() {
+        out.append(']');
+        needComma = true;
+        return this;
+    }
+
+    JsonWriter name(final String name) {
+        separator();
+        quote(name);
+        out.append(':');
+        needComma = false;
+        return this;
+    }
+
+    JsonWriter value(final String value) {
+        separator();
+        if (value == null) {
+            out.append("null");
+        } else {
+            quote(value);
+        }
+        needComma = true;
+        return this;
+    }
+
+    JsonWriter value(final long value) {
+        separator();
+        out.append(value);
+        needComma = true;
+        return this;
+    }
+
+    JsonWriter value(final boolean value) {
+        separator();
+        out.append(value);
+        needComma = true;
+        return this;
+    }
+
+    private void separator() {
+        if (needComma) {
+            out.append(',');
+        }
+    }
+
+    private void quote(final String s) {
+        out.append('"');
+        for (int i = 0; i < s.length(); ++i) {
+            final char c = s.charAt(i);
+            switch (c) {
+            case '"':
+                out.append("\\\"");
+                break;
+            case '\\':
+                out.append("\\\\");
+                break;
+            case '\n':
+                out.append("\\n");
+                break;
+            case '\r':
+                out.append("\\r");
+                break;
+            case '\t':
+                out.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    out.append(String.format("\\u%04x", (int)c));
+                } else {
+                    out.append(c);
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
@@ -14,7 +14,10 @@
 
 package com.hughes.android.dictionary;
 
+import java.text.CollationElementIterator;
 import java.text.Collator;
+import java.text.RuleBasedCollator;
+import java.util.Comparator;
 import java.util.Locale;
 
 public final class CollatorWrapper {
@@ -26,4 +29,14 @@ public static Collator getInstanceStrengthIdentical(Locale l) {
     c.setStrength(Collator.IDENTICAL);
     return c;
 }
+public static Comparator<Object> copy(Comparator<Object> c) {
+    return (Collator)((Collator)c).clone();
+}
+public static byte[] getSortKey(Comparator<Object> c, String s) {
+    return ((Collator)c).getCollationKey(s).toByteArray();
+}
+// null if the collator does not provide collation elements.
+public static CollationElementIterator getCollationElementIterator(Comparator<Object> c) {
+    return c instanceof RuleBasedCollator ? ((RuleBasedCollator)c).getCollationElementIterator("") : null;
+}
 }
@@ -1542,6 +1542,19 @@ class DictionaryActivity : AppCompatActivity() {
         listView.isSelected = true
     }
 
+    // Lets multi-word searches reuse the results of the previous keystroke.
+    private var searchSession: Index.SearchSession? = null
+    private var searchSessionIndex: Index? = null
+
+    @Synchronized
+    private fun searchSessionFor(index: Index): Index.SearchSession {
+        if (searchSessionIndex !== index || searchSession == null) {
+            searchSession = index.newSearchSession()
+            searchSessionIndex = index
+        }
+        return searchSession!!
+    }
+
     internal inner class SearchOperation(searchText: String, val index: Index) : Runnable {
         val interrupted: AtomicBoolean = AtomicBoolean(false)
 
@@ -1569,7 +1582,7 @@ class DictionaryActivity : AppCompatActivity() {
                     searchResult = index.findInsertionPoint(searchText, interrupted)
                 } else {
                     searchTokens = listOf(*searchTokenArray)
-                    multiWordSearchResult = index.multiWordSearch(
+                    multiWordSearchResult = searchSessionFor(index).multiWordSearch(
                         searchText, searchTokens,
                         interrupted
                     )
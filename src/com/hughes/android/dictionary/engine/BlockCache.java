@@ -0,0 +1,115 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LRU cache of inflated list_of blocks, shared by all lists of a
+ * Dictionary and bounded by the total number of inflated bytes.
+ * Entry objects are cached per list by ConcurrentCachingList already,
+ * this avoids inflating a whole block again for each other entry
+ * read from it.
+ */
+public final class BlockCache {
+
+    static final int DEFAULT_BUDGET = 4 * 1024 * 1024;
+
+    private final SegmentedLruCache<Long, byte[]> cache;
+    private final AtomicInteger nextListId = new AtomicInteger();
+
+    BlockCache(final long budget) {
+        cache = new SegmentedLruCache<>(budget, block -> block.length);
+    }
+
+    // Consecutive blocks of one list differ in the low bits of the
+    // hash, so they go to different segments.
+    private static Long key(final int listId, final int block) {
+        return ((long)listId << 32) | (block & 0xffffffffL);
+    }
+
+    /**
+     * @return a new id, to tell the blocks of different lists apart.
+     */
+    int newListId() {
+        return nextListId.getAndIncrement();
+    }
+
+    /**
+     * @return the inflated block, or null if not cached.
+     * The returned array must not be modified.
+     */
+    byte[] get(final int listId, final int block) {
+        return cache.get(key(listId, block));
+    }
+
+    void put(final int listId, final int block, final byte[] inflated) {
+        cache.put(key(listId, block), inflated);
+    }
+
+    /**
+     * Sets the maximum number of inflated bytes to keep, 0 disables caching.
+     */
+    public void setBudget(final long budget) {
+        cache.setCapacity(budget);
+    }
+
+    public long getBudget() {
+        return cache.getCapacity();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * @return the number of inflated bytes currently cached.
+     */
+    public long getBytes() {
+        return cache.weight();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * @return the number of block reads served without inflating.
+     */
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    /**
+     * @return the number of blocks that had to be inflated.
+     */
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    public long getEvictions() {
+        return cache.getEvictions();
+    }
+
+    public double getHitRate() {
+        return cache.getHitRate();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BlockCache(blocks=%d, bytes=%d, budget=%d, hits=%d, misses=%d, evictions=%d)",
+                             size(), getBytes(), getBudget(), getHits(), getMisses(), getEvictions());
+    }
+}
@@ -0,0 +1,47 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+/**
+ * Compression of the list_of blocks written by DictionaryWriter,
+ * stored in the list flags (see dictionary-format.txt).
+ */
+public enum BlockCodec {
+    /**
+     * Raw deflate, the smallest files and the only codec before v8.
+     */
+    DEFLATE(1, false),
+    /**
+     * Raw deflate with a PresetDictionary per list (since v8), smaller
+     * than DEFLATE for lists of small entries, but written in two passes.
+     */
+    DEFLATE_PRESET(1, true),
+    /**
+     * LzCodec (since v8), larger files but much faster to decompress.
+     */
+    LZ(2, false);
+
+    // List flags bit for a preset dictionary in front of the TOC.
+    static final int PRESET_DICTIONARY_FLAG = 4;
+
+    // Value of the list flags, without PRESET_DICTIONARY_FLAG.
+    final int flag;
+    final boolean presetDictionary;
+
+    BlockCodec(final int flag, final boolean presetDictionary) {
+        this.flag = flag;
+        this.presetDictionary = presetDictionary;
+    }
+}
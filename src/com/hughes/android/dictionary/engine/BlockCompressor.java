@@ -0,0 +1,124 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses list_of blocks for ListWriter, either right away or on a
+ * pool of worker threads.
+ * The output only depends on the input and the codec, so the
+ * compressed blocks are the same whichever thread produced them, and
+ * ListWriter writes them in order: the file does not depend on the
+ * number of threads.
+ */
+final class BlockCompressor implements Closeable {
+
+    private final BlockCodec codec;
+    private final ExecutorService executor;
+    private final int maxPending;
+    private final ConcurrentLinkedQueue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param threads number of worker threads, 1 or less compresses
+     *                on the calling thread.
+     */
+    BlockCompressor(final int threads, final BlockCodec codec) {
+        this.codec = codec;
+        if (threads > 1) {
+            executor = Executors.newFixedThreadPool(threads, r -> {
+                final Thread thread = new Thread(r, "BlockCompressor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Enough to keep all threads busy while the caller writes.
+            maxPending = 4 * threads;
+        } else {
+            executor = null;
+            maxPending = 0;
+        }
+    }
+
+    /**
+     * How many blocks a list may have waiting for compression
+     * before the caller should wait for the oldest one.
+     */
+    int maxPending() {
+        return maxPending;
+    }
+
+    BlockCodec codec() {
+        return codec;
+    }
+
+    /**
+     * @param dictionary preset dictionary for deflate, may be null.
+     */
+    Future<byte[]> submit(final byte[] block, final byte[] dictionary) {
+        final Callable<byte[]> task = codec == BlockCodec.LZ ? () -> LzCodec.compress(block)
+                                      : () -> deflate(block, dictionary);
+        if (executor == null) {
+            final FutureTask<byte[]> result = new FutureTask<>(task);
+            result.run();
+            return result;
+        }
+        return executor.submit(task);
+    }
+
+    private byte[] deflate(final byte[] block, final byte[] dictionary) {
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        }
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(block);
+            deflater.finish();
+            byte[] out = new byte[Math.max(64, block.length / 2)];
+            int n = 0;
+            while (!deflater.finished()) {
+                if (n == out.length) {
+                    out = Arrays.copyOf(out, 2 * n);
+                }
+                n += deflater.deflate(out, n, out.length - n);
+            }
+            return Arrays.copyOf(out, n);
+        } finally {
+            deflater.reset();
+            deflaters.add(deflater);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        Deflater deflater;
+        while ((deflater = deflaters.poll()) != null) {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import com.hughes.util.DataInputBuffer;
+import com.hughes.util.StringUtil;
+import com.hughes.util.raf.RAFList;
+import com.hughes.util.raf.RAFListSerializer;
+import com.hughes.util.raf.RAFListSerializerSkippable;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.zip.DataFormatException;
+
+/**
+ * Reader for list_of (see dictionary-format.txt) that can be used from
+ * several threads at once.
+ * Each access takes its own slice of the block it needs from a DataRegion,
+ * so reading, decompression and parsing run without any lock.
+ * Formats before v7 are read with RAFList, serialized by a lock.
+ */
+final class BlockList<T> extends AbstractList<T> implements RandomAccess {
+
+    /**
+     * Serializer for elements that are stored relative to the elements
+     * before them in the same block, e.g. front-coded.
+     * Reading an element starts with a new state at the start of its block.
+     */
+    interface BlockSerializer<T, S> extends RAFListSerializer<T> {
+        S newBlockState();
+
+        void skip(DataInput in, int index, S state) throws IOException;
+
+        T read(DataInput in, int index, S state) throws IOException;
+    }
+
+    private final DataRegion data;
+    private final RAFListSerializer<T> serializer;
+    private final BlockCache cache;
+    private final int listId;
+    private final int size;
+    private final int blockSize;
+    // Flags value of the codec, 0 if uncompressed.
+    private final int codec;
+    // Preset deflate dictionary, or null.
+    private final byte[] presetDictionary;
+    // Block offsets relative to the start of data, plus the end offset.
+    private final int[] blockOffsets;
+
+    private BlockList(final DataInputBuffer in, final RAFListSerializer<T> serializer,
+                      final BlockCache cache) throws IOException {
+        this.serializer = serializer;
+        size = StringUtil.readVarInt(in);
+        blockSize = StringUtil.readVarInt(in);
+        final int flags = StringUtil.readVarInt(in);
+        if (size < 0 || blockSize < 1) {
+            throw new IOException("Invalid list header: size " + size + ", block size " + blockSize);
+        }
+        codec = flags & ~BlockCodec.PRESET_DICTIONARY_FLAG;
+        if ((codec != 0 && codec != BlockCodec.DEFLATE.flag && codec != BlockCodec.LZ.flag)
+                || (flags != codec && codec != BlockCodec.DEFLATE.flag)) {
+            throw new IOException("Unsupported list flags " + flags);
+        }
+        if (flags != codec) {
+            final int len = StringUtil.readVarInt(in);
+            if (len < 0 || len > 32 * 1024) {
+                throw new IOException("Invalid preset dictionary size " + len);
+            }
+            presetDictionary = new byte[len];
+            in.readFully(presetDictionary);
+        } else {
+            presetDictionary = null;
+        }
+        final int numBlocks = (size + blockSize - 1) / blockSize;
+        final int tocSize = 4 * (numBlocks + 1);
+        blockOffsets = new int[numBlocks + 1];
+        for (int i = 0; i <= numBlocks; ++i) {
+            // Stored relative to the TOC start.
+            blockOffsets[i] = in.readInt() - tocSize;
+        }
+        data = new DataRegion(in, blockOffsets[numBlocks]);
+        this.cache = codec != 0 ? cache : null;
+        listId = this.cache != null ? this.cache.newListId() : -1;
+    }
+
+    /**
+     * Reads the list header at the current position of in and
+     * moves in past the list.
+     * @param cache keeps inflated blocks of compressed lists, may be null.
+     */
+    static <T> List<T> create(final DataInputBuffer in, final RAFListSerializer<T> serializer,
+                              final BlockCache cache, final int version,
+                              final String debugstr) throws IOException {
+        if (version < 7) {
+            return Collections.synchronizedList(RAFList.create(in, serializer, version, debugstr));
+        }
+        return new BlockList<>(in, serializer, cache);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of elements per block, the first element of
+     * a block is the cheapest to get.
+     */
+    int blockSize() {
+        return blockSize;
+    }
+
+    @Override
+    public T get(final int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + ", size " + size);
+        }
+        final int block = i / blockSize;
+        try {
+            final DataInputBuffer in = readBlock(block);
+            if (serializer instanceof BlockSerializer) {
+                return read((BlockSerializer<T, ?>) serializer, in, block * blockSize, i);
+            }
+            for (int skip = block * blockSize; skip < i; ++skip) {
+                if (serializer instanceof RAFListSerializerSkippable) {
+                    ((RAFListSerializerSkippable<T>) serializer).skip(in, skip);
+                } else {
+                    serializer.read(in, skip);
+                }
+            }
+            return serializer.read(in, i);
+        } catch (IOException | DataFormatException e) {
+            throw new RuntimeException("Dictionary list data corrupted", e);
+        }
+    }
+
+    private static <T, S> T read(final BlockSerializer<T, S> serializer, final DataInput in,
+                                 final int first, final int i) throws IOException {
+        final S state = serializer.newBlockState();
+        for (int skip = first; skip < i; ++skip) {
+            serializer.skip(in, skip, state);
+        }
+        return serializer.read(in, i, state);
+    }
+
+    private DataInputBuffer readBlock(final int block) throws IOException, DataFormatException {
+        if (cache != null) {
+            final byte[] cached = cache.get(listId, block);
+            if (cached != null) {
+                return new DataInputBuffer(ByteBuffer.wrap(cached), 0);
+            }
+        }
+        final int start = blockOffsets[block];
+        final int len = blockOffsets[block + 1] - start;
+        final DataInputBuffer in = data.borrow(start);
+        final DataInputBuffer blockData;
+        try {
+            blockData = in.slice(len);
+        } finally {
+            data.release(in);
+        }
+        final byte[] decompressed;
+        if (codec == BlockCodec.LZ.flag) {
+            decompressed = LzCodec.decompress(blockData, len);
+        } else if (codec == BlockCodec.DEFLATE.flag) {
+            final InflaterPool inflater = InflaterPool.get();
+            try {
+                inflater.read(blockData, len);
+                decompressed = inflater.inflate(len, presetDictionary);
+            } finally {
+                inflater.recycle();
+            }
+        } else {
+            return blockData;
+        }
+        if (cache != null) {
+            cache.put(listId, block, decompressed);
+        }
+        return new DataInputBuffer(ByteBuffer.wrap(decompressed), 0);
+    }
+}
@@ -0,0 +1,53 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Thread-safe replacement for CachingList: keeps the most recently used
+ * elements of a (slow to read) list.
+ * Elements are read from the underlying list without holding any lock.
+ * If two threads read the same element at once, both get the instance that
+ * made it into the cache first.
+ */
+final class ConcurrentCachingList<T> extends AbstractList<T> implements RandomAccess {
+
+    private final List<T> list;
+    private final SegmentedLruCache<Integer, T> cache;
+
+    ConcurrentCachingList(final List<T> list, final int cacheSize) {
+        this.list = list;
+        cache = new SegmentedLruCache<>(cacheSize, element -> 1);
+    }
+
+    @Override
+    public int size() {
+        return list.size();
+    }
+
+    @Override
+    public T get(final int i) {
+        final T cached = cache.get(i);
+        if (cached != null) {
+            return cached;
+        }
+        final T value = list.get(i);
+        final T first = cache.putIfAbsent(i, value);
+        return first != null ? first : value;
+    }
+}
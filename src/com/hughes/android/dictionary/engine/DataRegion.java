@@ -0,0 +1,70 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import com.hughes.util.DataInputBuffer;
+
+/**
+ * A part of the dictionary data that several threads read at random
+ * offsets, e.g. the rows of an index.
+ * A DataInputBuffer has only one position, so every read borrows its own
+ * cursor over the same bytes instead of locking a shared one. Cursors are
+ * further slices of the region, i.e. views and not copies, and are reused.
+ */
+final class DataRegion {
+
+    private final DataInputBuffer region;
+    private final int length;
+    private final ObjectPool<DataInputBuffer> cursors = new ObjectPool<DataInputBuffer>() {
+        @Override
+        protected DataInputBuffer create() {
+            // Only moves the position of region, which is never read directly.
+            synchronized (region) {
+                region.rewind();
+                return region.slice(length);
+            }
+        }
+    };
+
+    /**
+     * Takes the next length bytes of in.
+     */
+    DataRegion(final DataInputBuffer in, final int length) {
+        region = in.slice(length);
+        this.length = length;
+    }
+
+    int length() {
+        return length;
+    }
+
+    /**
+     * @return a cursor at offset, for use by the calling thread until
+     * passed to release.
+     */
+    DataInputBuffer borrow(final int offset) {
+        if (offset < 0 || offset > length) {
+            throw new IndexOutOfBoundsException("Offset " + offset + ", length " + length);
+        }
+        final DataInputBuffer cursor = cursors.borrow();
+        cursor.rewind();
+        cursor.skipBytes(offset);
+        return cursor;
+    }
+
+    void release(final DataInputBuffer cursor) {
+        cursors.release(cursor);
+    }
+}
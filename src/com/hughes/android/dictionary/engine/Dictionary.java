@@ -14,16 +14,13 @@
 
 package com.hughes.android.dictionary.engine;
 
-import com.hughes.util.CachingList;
 import com.hughes.util.DataInputBuffer;
-import com.hughes.util.raf.RAFList;
 import com.hughes.util.raf.RAFListSerializer;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.io.PrintStream;
-import java.io.RandomAccessFile;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
@@ -34,8 +31,10 @@ public class Dictionary {
 
     private static final int CACHE_SIZE = 5000;
 
-    private static final int CURRENT_DICT_VERSION = 7;
-    private static final String END_OF_DICTIONARY = "END OF DICTIONARY";
+    static final int CURRENT_DICT_VERSION = 8;
+    // Newest version released readers accept, see DictionaryWriter.
+    static final int COMPATIBLE_DICT_VERSION = 7;
+    static final String END_OF_DICTIONARY = "END OF DICTIONARY";
 
     // persisted
     final int dictFileVersion;
@@ -46,14 +45,34 @@ public class Dictionary {
     public final List<HtmlEntry> htmlEntries;
     public final List<DataInputBuffer> htmlData;
     public final List<EntrySource> sources;
+    // Indices read from a file only load more than their header on first use.
     public final List<Index> indices;
+    // Normalized entry texts for searching, shared by all indices.
+    public final NormalizedTextCache normalizedTexts = new NormalizedTextCache();
+    // Inflated blocks of all compressed lists.
+    public final BlockCache blockCache = new BlockCache(BlockCache.DEFAULT_BUDGET);
     // Could be a local variable in constructor, but
     // this way avoids a native-image VM bug.
     private final MappedByteBuffer wholefile;
+    // Time the FileChannel constructor took, 0 for a new dictionary.
+    public final long openNanos;
+
+    // Whether write() front-codes the index entries (v8 only).
+    @SuppressWarnings("WeakerAccess")
+    public boolean frontCodeIndexEntries = false;
+
+    // Whether write() stores the block heads of the index entries (v8 only).
+    @SuppressWarnings("WeakerAccess")
+    public boolean writeBlockHeads = false;
+
+    // Where write() reports the offsets of the parts, null for nowhere.
+    @SuppressWarnings("WeakerAccess")
+    public PrintStream writeProgress = null;
 
     /**
      * dictFileVersion 1 adds: <li>links to sources? dictFileVersion 2 adds: <li>
-     * counts of tokens in indices.
+     * counts of tokens in indices. dictFileVersion 8 adds: <li> optional
+     * precomputed sort keys in indices.
      */
 
     public Dictionary(final String dictInfo) {
@@ -67,9 +86,11 @@ public class Dictionary {
         sources = new ArrayList<>();
         indices = new ArrayList<>();
         wholefile = null;
+        openNanos = 0;
     }
 
     public Dictionary(final FileChannel ch) throws IOException {
+        final long start = System.nanoTime();
         wholefile = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
         DataInputBuffer in = new DataInputBuffer(wholefile, 0);
         dictFileVersion = in.readInt();
@@ -79,34 +100,35 @@ public class Dictionary {
         creationMillis = in.readLong();
         dictInfo = in.readUTF();
 
-        // Load the sources, then seek past them, because reading them later
-        // disrupts the offset.
+        // All lists can be read by several threads at once.
         try {
-            final RAFList<EntrySource> rafSources = RAFList.create(in, new EntrySource.Serializer(
-                    this), dictFileVersion, dictInfo + " sources: ");
-            sources = new ArrayList<>(rafSources);
-            ch.position(rafSources.getEndOffset());
-
-            pairEntries = CachingList.create(
-                              RAFList.create(in, new PairEntry.Serializer(this), dictFileVersion, dictInfo + " pairs: "),
-                              CACHE_SIZE, false);
-            textEntries = CachingList.create(
-                              RAFList.create(in, new TextEntry.Serializer(this), dictFileVersion, dictInfo + " text: "),
-                              CACHE_SIZE, true);
+            sources = new ArrayList<>(BlockList.create(in, new EntrySource.Serializer(this), blockCache,
+                                                       dictFileVersion, dictInfo + " sources: "));
+            pairEntries = new ConcurrentCachingList<>(
+                              BlockList.create(in, new PairEntry.Serializer(this), blockCache, dictFileVersion, dictInfo + " pairs: "),
+                              CACHE_SIZE);
+            textEntries = new ConcurrentCachingList<>(
+                              BlockList.create(in, new TextEntry.Serializer(this), blockCache, dictFileVersion, dictInfo + " text: "),
+                              CACHE_SIZE);
             if (dictFileVersion >= 5) {
-                htmlEntries = CachingList.create(
-                                  RAFList.create(in, new HtmlEntry.Serializer(this), dictFileVersion, dictInfo + " html: "),
-                                  CACHE_SIZE, false);
+                htmlEntries = new ConcurrentCachingList<>(
+                                  BlockList.create(in, new HtmlEntry.Serializer(this), blockCache, dictFileVersion, dictInfo + " html: "),
+                                  CACHE_SIZE);
             } else {
                 htmlEntries = Collections.emptyList();
             }
             if (dictFileVersion >= 7) {
-                htmlData = RAFList.create(in, new HtmlEntry.DataDeserializer(), dictFileVersion, dictInfo + " html: ");
+                htmlData = BlockList.create(in, new HtmlEntry.DataDeserializer(), blockCache,
+                                            dictFileVersion, dictInfo + " html: ");
             } else {
                 htmlData = null;
             }
-            indices = CachingList.createFullyCached(RAFList.create(in, new IndexSerializer(),
-                                                    dictFileVersion, dictInfo + " index: "));
+            final IndexSerializer indexSerializer = new IndexSerializer();
+            final List<Index> indexList = BlockList.create(in, indexSerializer, blockCache, dictFileVersion,
+                                                           dictInfo + " index: ");
+            // An index can only be loaded later from its own block.
+            indexSerializer.lazy = indexList instanceof BlockList && ((BlockList<Index>) indexList).blockSize() == 1;
+            indices = Collections.unmodifiableList(new ArrayList<>(indexList));
         } catch (RuntimeException e) {
             throw new IOException("RuntimeException loading dictionary", e);
         }
@@ -114,40 +136,69 @@ public class Dictionary {
         if (!end.equals(END_OF_DICTIONARY)) {
             throw new IOException("Dictionary seems corrupt: " + end);
         }
+        openNanos = System.nanoTime() - start;
     }
 
+    /**
+     * Writes the dictionary via DictionaryWriter, as v7 unless an index
+     * or the codec needs v8.
+     */
     public void write(DataOutput out) throws IOException {
-        RandomAccessFile raf = (RandomAccessFile)out;
+        write(out, 1);
+    }
+
+    /**
+     * Like write(out), but compresses blocks on compressionThreads
+     * threads. The output does not depend on the number of threads.
+     */
+    public void write(DataOutput out, int compressionThreads) throws IOException {
+        write(out, compressionThreads, BlockCodec.DEFLATE);
+    }
+
+    /**
+     * Like write(out, compressionThreads), with codec for the compressed lists.
+     */
+    public void write(DataOutput out, int compressionThreads, BlockCodec codec) throws IOException {
         if (dictFileVersion < 7) throw new RuntimeException("write function cannot write formats older than v7!");
-        raf.writeInt(dictFileVersion);
-        raf.writeLong(creationMillis);
-        raf.writeUTF(dictInfo);
-        System.out.println("sources start: " + raf.getFilePointer());
-        RAFList.write(raf, sources, new EntrySource.Serializer(this));
-        System.out.println("pair start: " + raf.getFilePointer());
-        RAFList.write(raf, pairEntries, new PairEntry.Serializer(this), 64, true);
-        System.out.println("text start: " + raf.getFilePointer());
-        RAFList.write(raf, textEntries, new TextEntry.Serializer(this));
-        System.out.println("html index start: " + raf.getFilePointer());
-        RAFList.write(raf, htmlEntries, new HtmlEntry.Serializer(this), 64, true);
-        System.out.println("html data start: " + raf.getFilePointer());
-        assert htmlData == null;
-        RAFList.write(raf, htmlEntries, new HtmlEntry.DataSerializer(), 128, true);
-        System.out.println("indices start: " + raf.getFilePointer());
-        RAFList.write(raf, indices, new IndexSerializer());
-        System.out.println("end: " + raf.getFilePointer());
-        raf.writeUTF(END_OF_DICTIONARY);
+        try (DictionaryWriter writer = new DictionaryWriter(dictInfo, creationMillis, null, compressionThreads,
+                                                            codec)) {
+            writer.frontCodeIndexEntries = frontCodeIndexEntries;
+            writer.writeBlockHeads = writeBlockHeads;
+            writer.progress = writeProgress;
+            for (final EntrySource source : sources) {
+                writer.addSource(source);
+            }
+            for (final PairEntry entry : pairEntries) {
+                writer.addPairEntry(entry);
+            }
+            for (final TextEntry entry : textEntries) {
+                writer.addTextEntry(entry);
+            }
+            for (final HtmlEntry entry : htmlEntries) {
+                writer.addHtmlEntry(entry);
+            }
+            for (final Index index : indices) {
+                index.addTo(writer.addIndex(index.shortName, index.longName, index.sortLanguage,
+                                            index.normalizerRules, index.swapPairEntries, index.stoplist,
+                                            index.writeSortKeys, index.writeEntryTable));
+            }
+            writer.write(out);
+        }
     }
 
     private final class IndexSerializer implements RAFListSerializer<Index> {
+        boolean lazy;
+
         @Override
         public Index read(DataInput raf, final int readIndex) throws IOException {
-            return new Index(Dictionary.this, (DataInputBuffer)raf);
+            return new Index(Dictionary.this, (DataInputBuffer)raf, lazy);
         }
 
         @Override
-        public void write(DataOutput raf, Index t) throws IOException {
-            t.write(raf);
+        public void write(DataOutput raf, Index t) {
+            // Indices are only written through DictionaryWriter, which
+            // decides the format version for the whole dictionary.
+            assert false;
         }
     }
 
@@ -0,0 +1,490 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import com.hughes.util.StringUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes a dictionary without holding its entries in memory.
+ * The file is v7, which every released reader accepts, unless a
+ * feature only v8 has is used: sort keys, entry tables, front-coding
+ * or block heads in an index, or a codec other than DEFLATE.
+ * Entries, index entries and rows are appended one at a time to
+ * temporary spill files, write() then copies everything into the
+ * final file, with the TOCs computed from what was appended.
+ * Only per-block offsets and the stoplists stay in memory, and the
+ * output can be any DataOutput, it is written strictly sequentially.
+ * <p>
+ * Entries are referenced by the index returned when adding them,
+ * index entries and rows must be added in their final order.
+ */
+public final class DictionaryWriter implements Closeable {
+
+    // Same block sizes as Dictionary.write always used.
+    static final int PAIR_BLOCK_SIZE = 64;
+    static final int HTML_BLOCK_SIZE = 64;
+    static final int HTML_DATA_BLOCK_SIZE = 128;
+    static final int INDEX_ENTRY_BLOCK_SIZE = 32;
+    private static final int BYTES_PER_ROW = 3;
+
+    private final String dictInfo;
+    private final long creationMillis;
+    private final File spillDir;
+    private final BlockCompressor compressor;
+    private final ListWriter sources;
+    private final ListWriter pairEntries;
+    private final ListWriter textEntries;
+    private final ListWriter htmlEntries;
+    private final ListWriter htmlData;
+    private final List<IndexWriter> indices = new ArrayList<>();
+
+    // Whether indices added afterwards front-code their entries (v8 only).
+    @SuppressWarnings("WeakerAccess")
+    public boolean frontCodeIndexEntries = false;
+
+    // Whether indices added afterwards store their block heads (v8 only).
+    @SuppressWarnings("WeakerAccess")
+    public boolean writeBlockHeads = false;
+
+    // Where write() reports the offsets of the parts, null for nowhere.
+    @SuppressWarnings("WeakerAccess")
+    public PrintStream progress = null;
+
+    public DictionaryWriter(final String dictInfo, final long creationMillis,
+                            final File spillDir) throws IOException {
+        this(dictInfo, creationMillis, spillDir, 1, BlockCodec.DEFLATE);
+    }
+
+    /**
+     * @param spillDir           where to put the temporary files, null for the
+     *                           default temporary directory.
+     * @param compressionThreads number of threads compressing blocks,
+     *                           the output is the same for any number.
+     * @param codec              compression of the entry and index entry lists.
+     */
+    public DictionaryWriter(final String dictInfo, final long creationMillis, final File spillDir,
+                            final int compressionThreads, final BlockCodec codec) throws IOException {
+        this.dictInfo = dictInfo;
+        this.creationMillis = creationMillis;
+        this.spillDir = spillDir;
+        compressor = new BlockCompressor(compressionThreads, codec);
+        sources = new ListWriter(1, null, spillDir, "sources");
+        pairEntries = new ListWriter(smallEntryBlockSize(PAIR_BLOCK_SIZE, codec), compressor, spillDir, "pairs");
+        textEntries = new ListWriter(1, null, spillDir, "text");
+        htmlEntries = new ListWriter(HTML_BLOCK_SIZE, compressor, spillDir, "html");
+        htmlData = new ListWriter(HTML_DATA_BLOCK_SIZE, compressor, spillDir, "htmldata");
+    }
+
+    // With a preset dictionary even half as large blocks of small entries
+    // compress better than without, and make random access cheaper.
+    static int smallEntryBlockSize(final int blockSize, final BlockCodec codec) {
+        return codec.presetDictionary ? blockSize / 2 : blockSize;
+    }
+
+    /**
+     * @return the index of the source, must be the same as source.index().
+     */
+    public int addSource(final EntrySource source) throws IOException {
+        source.write(sources.next());
+        return sources.size() - 1;
+    }
+
+    /**
+     * @return the index for referencing the entry in rows.
+     */
+    public int addPairEntry(final PairEntry entry) throws IOException {
+        entry.write(pairEntries.next());
+        return pairEntries.size() - 1;
+    }
+
+    public int addTextEntry(final TextEntry entry) throws IOException {
+        entry.write(textEntries.next());
+        return textEntries.size() - 1;
+    }
+
+    /**
+     * @return the index for referencing the entry in rows and index entries.
+     */
+    public int addHtmlEntry(final HtmlEntry entry) throws IOException {
+        entry.writeBase(htmlEntries.next());
+        entry.writeData(htmlData.next());
+        return htmlEntries.size() - 1;
+    }
+
+    public IndexWriter addIndex(final String shortName, final String longName, final Language sortLanguage,
+                                final String normalizerRules, final boolean swapPairEntries,
+                                final Set<String> stoplist, final boolean writeSortKeys,
+                                final boolean writeEntryTable) throws IOException {
+        final IndexWriter index = new IndexWriter(shortName, longName, sortLanguage, normalizerRules,
+                swapPairEntries, stoplist, writeSortKeys, writeEntryTable, frontCodeIndexEntries,
+                writeBlockHeads, compressor, spillDir);
+        indices.add(index);
+        return index;
+    }
+
+    /**
+     * Writes the complete dictionary to out, nothing can be added after this.
+     */
+    public void write(final DataOutput out) throws IOException {
+        final ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        final DataOutputStream header = new DataOutputStream(headerBytes);
+        final int dictFileVersion = dictFileVersion();
+        header.writeInt(dictFileVersion);
+        header.writeLong(creationMillis);
+        header.writeUTF(dictInfo);
+        header.flush();
+        out.write(headerBytes.toByteArray());
+        long pos = headerBytes.size();
+        reportProgress("sources start: ", pos);
+        pos += writeList(out, sources);
+        reportProgress("pair start: ", pos);
+        pos += writeList(out, pairEntries);
+        reportProgress("text start: ", pos);
+        pos += writeList(out, textEntries);
+        reportProgress("html index start: ", pos);
+        pos += writeList(out, htmlEntries);
+        reportProgress("html data start: ", pos);
+        pos += writeList(out, htmlData);
+        reportProgress("indices start: ", pos);
+        pos += writeIndices(out, dictFileVersion);
+        reportProgress("end: ", pos);
+        out.writeUTF(Dictionary.END_OF_DICTIONARY);
+    }
+
+    private void reportProgress(final String part, final long pos) {
+        if (progress != null) {
+            progress.println(part + pos);
+        }
+    }
+
+    private int dictFileVersion() {
+        if (compressor.codec() != BlockCodec.DEFLATE) {
+            return Dictionary.CURRENT_DICT_VERSION;
+        }
+        for (final IndexWriter index : indices) {
+            if (index.needsV8()) {
+                return Dictionary.CURRENT_DICT_VERSION;
+            }
+        }
+        return Dictionary.COMPATIBLE_DICT_VERSION;
+    }
+
+    private static long writeList(final DataOutput out, final ListWriter list) throws IOException {
+        final long length = list.length();
+        list.writeTo(out);
+        return length;
+    }
+
+    // A list_of with one uncompressed block per index, each index
+    // is copied straight from its spill files.
+    private long writeIndices(final DataOutput out, final int dictFileVersion) throws IOException {
+        final ByteArrayOutputStream tocBytes = new ByteArrayOutputStream();
+        final DataOutputStream toc = new DataOutputStream(tocBytes);
+        StringUtil.writeVarInt(toc, indices.size());
+        StringUtil.writeVarInt(toc, 1);
+        StringUtil.writeVarInt(toc, 0);
+        // Offsets are relative to the start of the TOC.
+        long offset = 4L * (indices.size() + 1);
+        for (final IndexWriter index : indices) {
+            toc.writeInt((int)offset);
+            offset += index.length(dictFileVersion);
+            if (offset > Integer.MAX_VALUE) {
+                throw new IOException("Indices too large for the dictionary format");
+            }
+        }
+        toc.writeInt((int)offset);
+        toc.flush();
+        out.write(tocBytes.toByteArray());
+        long length = tocBytes.size();
+        for (final IndexWriter index : indices) {
+            length += index.length(dictFileVersion);
+            index.writeTo(out, dictFileVersion);
+        }
+        return length;
+    }
+
+    /**
+     * Deletes all temporary files.
+     */
+    @Override
+    public void close() throws IOException {
+        final List<Closeable> parts = new ArrayList<>();
+        parts.add(sources);
+        parts.add(pairEntries);
+        parts.add(textEntries);
+        parts.add(htmlEntries);
+        parts.add(htmlData);
+        parts.addAll(indices);
+        parts.add(compressor);
+        closeAll(parts);
+    }
+
+    private static void closeAll(final List<Closeable> parts) throws IOException {
+        IOException error = null;
+        for (final Closeable part : parts) {
+            try {
+                part.close();
+            } catch (IOException e) {
+                error = error == null ? e : error;
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Writes one Index, see DictionaryWriter.
+     * Rows reference entries by the index their add method returned,
+     * token rows reference the index entry they belong to.
+     */
+    public static final class IndexWriter implements Closeable {
+
+        private final String shortName;
+        private final String longName;
+        private final Language sortLanguage;
+        private final String normalizerRules;
+        private final boolean swapPairEntries;
+        private final Set<String> stoplist;
+        private final Comparator<Object> collator;
+        private final int entryBlockSize;
+        private final ListWriter entries;
+        // Previous tokens in the current block of entries, null unless front-coding.
+        private final FrontCoder.IndexTokens tokens;
+        // Null unless requested.
+        private final TableWriter sortKeys;
+        private final TableWriter entryTable;
+        // Normalized token of the first entry of each block, null unless requested.
+        private final SpillFile blockHeads;
+        private final SpillFile rows;
+        private int numRows;
+        @SuppressWarnings("WeakerAccess")
+        public int mainTokenCount = -1;
+
+        IndexWriter(final String shortName, final String longName, final Language sortLanguage,
+                    final String normalizerRules, final boolean swapPairEntries,
+                    final Set<String> stoplist, final boolean writeSortKeys,
+                    final boolean writeEntryTable, final boolean frontCodeEntries,
+                    final boolean writeBlockHeads, final BlockCompressor compressor,
+                    final File spillDir) throws IOException {
+            this.shortName = shortName;
+            this.longName = longName;
+            this.sortLanguage = sortLanguage;
+            this.normalizerRules = normalizerRules;
+            this.swapPairEntries = swapPairEntries;
+            this.stoplist = stoplist;
+            collator = writeSortKeys ? sortLanguage.getCollator() : null;
+            tokens = frontCodeEntries ? new FrontCoder.IndexTokens() : null;
+            entryBlockSize = smallEntryBlockSize(INDEX_ENTRY_BLOCK_SIZE, compressor.codec());
+            entries = new ListWriter(entryBlockSize, compressor, spillDir, shortName + "-entries");
+            sortKeys = writeSortKeys ? new TableWriter(spillDir, shortName + "-sortkeys") : null;
+            entryTable = writeEntryTable ? new TableWriter(spillDir, shortName + "-entrytable") : null;
+            blockHeads = writeBlockHeads ? new SpillFile(spillDir, shortName + "-blockheads") : null;
+            rows = new SpillFile(spillDir, shortName + "-rows");
+        }
+
+        /**
+         * @param htmlEntries indices as returned by addHtmlEntry.
+         * @return the index to use for the token rows of this entry.
+         */
+        public int addIndexEntry(final String token, final String normalizedToken, final int startRow,
+                                 final int numRows, final int[] htmlEntries) throws IOException {
+            final DataOutput out = entries.next();
+            if ((entries.size() - 1) % entryBlockSize == 0) {
+                if (tokens != null) {
+                    tokens.reset();
+                }
+                if (blockHeads != null) {
+                    blockHeads.out().writeUTF(normalizedToken);
+                }
+            }
+            if (tokens != null) {
+                Index.IndexEntry.writeFrontCodedBase(out, tokens, token, normalizedToken, startRow, numRows);
+            } else {
+                Index.IndexEntry.writeBase(out, token, normalizedToken, startRow, numRows);
+            }
+            StringUtil.writeVarInt(out, htmlEntries.length);
+            for (final int htmlEntry : htmlEntries) {
+                StringUtil.writeVarInt(out, htmlEntry);
+            }
+            addTables(normalizedToken, startRow, numRows, htmlEntries.length);
+            return entries.size() - 1;
+        }
+
+        public int addIndexEntry(final Index.IndexEntry entry) throws IOException {
+            final int[] htmlEntries = new int[entry.htmlEntries.size()];
+            for (int i = 0; i < htmlEntries.length; ++i) {
+                htmlEntries[i] = entry.htmlEntries.get(i).index();
+            }
+            return addIndexEntry(entry.token, entry.normalizedToken(), entry.startRow, entry.numRows, htmlEntries);
+        }
+
+        private void addTables(final String normalizedToken, final int startRow, final int numRows,
+                               final int numHtmlEntries) throws IOException {
+            if (sortKeys != null) {
+                SortKeyTable.writeEntry(sortKeys.next(), normalizedToken, collator);
+            }
+            if (entryTable != null) {
+                IndexEntryTable.writeEntry(entryTable.next(), startRow, numRows, numHtmlEntries,
+                                           normalizedToken);
+            }
+        }
+
+        public int addTokenRow(final int indexEntry, final boolean hasMainEntry) throws IOException {
+            return addRow(hasMainEntry ? RowBase.TYPE_TOKEN : RowBase.TYPE_TOKEN_NO_MAIN,
+                          indexEntry);
+        }
+
+        public int addPairRow(final int pairEntry) throws IOException {
+            return addRow(RowBase.TYPE_PAIR, pairEntry);
+        }
+
+        public int addHtmlRow(final int htmlEntry) throws IOException {
+            return addRow(RowBase.TYPE_HTML, htmlEntry);
+        }
+
+        public int addRow(final RowBase row) throws IOException {
+            return addRow(RowBase.Serializer.type(row), row.referenceIndex);
+        }
+
+        private int addRow(final int type, final int referenceIndex) throws IOException {
+            RowBase.Serializer.write(rows.out(), type, referenceIndex);
+            return numRows++;
+        }
+
+        /**
+         * @return the number of rows so far, i.e. the index of the next row.
+         */
+        public int getRowCount() {
+            return numRows;
+        }
+
+        public int getIndexEntryCount() {
+            return entries.size();
+        }
+
+        private byte[] header() throws IOException {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(shortName);
+            out.writeUTF(longName);
+            out.writeUTF(sortLanguage.getIsoCode());
+            out.writeUTF(normalizerRules);
+            out.writeBoolean(swapPairEntries);
+            out.writeInt(mainTokenCount);
+            out.flush();
+            return bytes.toByteArray();
+        }
+
+        /**
+         * @return whether the index uses anything only format v8 has.
+         */
+        boolean needsV8() {
+            return sortKeys != null || entryTable != null || tokens != null || blockHeads != null;
+        }
+
+        // Everything between the index entries and the optional tables.
+        private byte[] middle(final int dictFileVersion) throws IOException {
+            if (dictFileVersion < 8 && needsV8()) {
+                throw new IllegalStateException("Index " + shortName + " needs dictionary format v8");
+            }
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream(bytes);
+            StringUtil.writeVarInt(out, stoplist.size());
+            for (final String word : stoplist) {
+                out.writeUTF(word);
+            }
+            if (dictFileVersion >= 8) {
+                StringUtil.writeVarInt(out, (sortKeys != null ? 1 : 0) | (entryTable != null ? 2 : 0)
+                                       | (tokens != null ? 4 : 0) | (blockHeads != null ? 8 : 0));
+            }
+            out.flush();
+            return bytes.toByteArray();
+        }
+
+        /**
+         * @return the size of the index in the dictionary, nothing can
+         * be added after calling this.
+         */
+        long length(final int dictFileVersion) throws IOException {
+            long length = header().length + entries.length() + middle(dictFileVersion).length;
+            if (sortKeys != null) {
+                length += sortKeys.length();
+            }
+            if (entryTable != null) {
+                length += entryTable.length();
+            }
+            if (blockHeads != null) {
+                length += 4 + blockHeads.length();
+            }
+            return length + 8 + rows.length();
+        }
+
+        /**
+         * Writes the complete index to out, nothing can be added after this.
+         */
+        void writeTo(final DataOutput out, final int dictFileVersion) throws IOException {
+            out.write(header());
+            entries.writeTo(out);
+            out.write(middle(dictFileVersion));
+            if (sortKeys != null) {
+                sortKeys.writeTo(out);
+            }
+            if (entryTable != null) {
+                entryTable.writeTo(out);
+            }
+            if (blockHeads != null) {
+                out.writeInt(blockHeads.intLength());
+                blockHeads.copyTo(out);
+            }
+            // uniform_list_of
+            out.writeInt(numRows);
+            out.writeInt(BYTES_PER_ROW);
+            rows.copyTo(out);
+        }
+
+        /**
+         * Deletes all temporary files.
+         */
+        @Override
+        public void close() throws IOException {
+            final List<Closeable> parts = new ArrayList<>();
+            parts.add(entries);
+            if (sortKeys != null) {
+                parts.add(sortKeys);
+            }
+            if (entryTable != null) {
+                parts.add(entryTable);
+            }
+            if (blockHeads != null) {
+                parts.add(blockHeads);
+            }
+            parts.add(rows);
+            closeAll(parts);
+        }
+    }
+}
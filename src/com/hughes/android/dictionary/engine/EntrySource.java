@@ -47,6 +47,11 @@ public class EntrySource extends IndexedObject {
         return name;
     }
 
+    void write(DataOutput raf) throws IOException {
+        raf.writeUTF(name);
+        raf.writeInt(numEntries);
+    }
+
     public static final class Serializer implements RAFListSerializer<EntrySource> {
 
         final Dictionary dictionary;
@@ -65,8 +70,7 @@ public class EntrySource extends IndexedObject {
 
         @Override
         public void write(DataOutput raf, EntrySource t) throws IOException {
-            raf.writeUTF(t.name);
-            raf.writeInt(t.numEntries);
+            t.write(raf);
         }
     }
 
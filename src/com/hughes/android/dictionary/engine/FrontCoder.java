@@ -0,0 +1,135 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import com.hughes.util.StringUtil;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Front coding of the strings of a list block (see front-coded
+ * [index_entry] in dictionary-format.txt): each string is stored as the
+ * number of bytes it shares with the previous one plus the remaining
+ * bytes, all in the modified UTF-8 of writeUTF.
+ * The coder keeps the bytes of the previous string, so reading past an
+ * entry only copies bytes, and decode() creates the String only for
+ * the entry that is actually wanted.
+ */
+final class FrontCoder {
+
+    private byte[] bytes = new byte[64];
+    private int length;
+    // Writer only, the next string before it replaces bytes.
+    private byte[] encoded;
+
+    /**
+     * Starts a new block, the next string is stored without prefix.
+     */
+    void reset() {
+        length = 0;
+    }
+
+    void copyFrom(final FrontCoder other) {
+        ensureCapacity(other.length);
+        System.arraycopy(other.bytes, 0, bytes, 0, other.length);
+        length = other.length;
+    }
+
+    void write(final DataOutput out, final String s) throws IOException {
+        if (encoded == null || encoded.length < 3 * s.length()) {
+            encoded = new byte[Math.max(64, 3 * s.length())];
+        }
+        int n = 0;
+        for (int i = 0; i < s.length(); ++i) {
+            final char c = s.charAt(i);
+            if (c >= 1 && c < 0x80) {
+                encoded[n++] = (byte)c;
+            } else if (c < 0x800) {
+                encoded[n++] = (byte)(0xc0 | (c >> 6));
+                encoded[n++] = (byte)(0x80 | (c & 0x3f));
+            } else {
+                encoded[n++] = (byte)(0xe0 | (c >> 12));
+                encoded[n++] = (byte)(0x80 | ((c >> 6) & 0x3f));
+                encoded[n++] = (byte)(0x80 | (c & 0x3f));
+            }
+        }
+        int prefix = 0;
+        final int maxPrefix = Math.min(n, length);
+        while (prefix < maxPrefix && encoded[prefix] == bytes[prefix]) {
+            ++prefix;
+        }
+        StringUtil.writeVarInt(out, prefix);
+        StringUtil.writeVarInt(out, n - prefix);
+        out.write(encoded, prefix, n - prefix);
+        final byte[] previous = bytes;
+        bytes = encoded;
+        encoded = previous;
+        length = n;
+    }
+
+    void read(final DataInput in) throws IOException {
+        final int prefix = StringUtil.readVarInt(in);
+        final int suffix = StringUtil.readVarInt(in);
+        if (prefix < 0 || prefix > length || suffix < 0 || suffix > 0xffff * 3) {
+            throw new IOException("Invalid front coded string: prefix " + prefix + ", suffix " + suffix);
+        }
+        ensureCapacity(prefix + suffix);
+        in.readFully(bytes, prefix, suffix);
+        length = prefix + suffix;
+    }
+
+    String decode() throws IOException {
+        final char[] chars = new char[length];
+        int len = 0;
+        for (int n = 0; n < length; ++n) {
+            final int c = bytes[n] & 0xff;
+            if (c < 0x80) {
+                chars[len++] = (char)c;
+            } else if ((c >> 5) == 6 && n + 1 < length) {
+                chars[len++] = (char)(((c & 0x1f) << 6) | (bytes[++n] & 0x3f));
+            } else if ((c >> 4) == 14 && n + 2 < length) {
+                chars[len++] = (char)(((c & 0x0f) << 12) | ((bytes[n + 1] & 0x3f) << 6) | (bytes[n + 2] & 0x3f));
+                n += 2;
+            } else {
+                throw new IOException("Invalid modified UTF-8 in front coded string");
+            }
+        }
+        return new String(chars, 0, len);
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (bytes.length < capacity) {
+            bytes = Arrays.copyOf(bytes, Math.max(capacity, 2 * bytes.length));
+        }
+    }
+
+    /**
+     * Token and normalized token of front-coded index entries.
+     */
+    static final class IndexTokens {
+        final FrontCoder token = new FrontCoder();
+        final FrontCoder normalizedToken = new FrontCoder();
+        // Of the current entry.
+        boolean hasNormalizedForm;
+
+        void reset() {
+            token.reset();
+            normalizedToken.reset();
+        }
+    }
+}
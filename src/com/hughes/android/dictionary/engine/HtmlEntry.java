@@ -38,12 +38,12 @@ public class HtmlEntry extends AbstractEntry implements Comparable<HtmlEntry> {
         html = null;
     }
 
-    private void writeBase(DataOutput raf) throws IOException {
+    void writeBase(DataOutput raf) throws IOException {
         super.write(raf);
         raf.writeUTF(title);
     }
 
-    private void writeData(DataOutput raf) throws IOException {
+    void writeData(DataOutput raf) throws IOException {
         final byte[] bytes = getHtml().getBytes(StandardCharsets.UTF_8);
         StringUtil.writeVarInt(raf, bytes.length);
         raf.write(bytes);
@@ -58,6 +58,15 @@ public class HtmlEntry extends AbstractEntry implements Comparable<HtmlEntry> {
         return html != null ? html : lazyHtmlLoader.getHtml();
     }
 
+    /**
+     * @return getRawText(false).length(), without decoding the HTML into
+     * a String if possible. The HTML data block is still inflated, unless
+     * the BlockCache has it, but only once per entry object.
+     */
+    int getRawTextLength() {
+        return title.length() + 2 + (html != null ? html.length() : lazyHtmlLoader.getHtmlLength());
+    }
+
     @Override
     public void addToDictionary(Dictionary dictionary) {
         assert index == -1;
@@ -186,11 +195,44 @@ public class HtmlEntry extends AbstractEntry implements Comparable<HtmlEntry> {
             return entry.getRawText(compact);
         }
 
+        @Override
+        int getSideLength(boolean swapPairEntries) {
+            return getEntry().getRawTextLength();
+        }
+
         @Override
         public RowMatchType matches(final List<String> searchTokens,
                                     final Pattern orderedMatchPattern, final Transliterator normalizer,
                                     final boolean swapPairEntries) {
-            final String text = normalizer.transform(getRawText(false));
+            final String[] cached = index.dict.normalizedTexts.get(NormalizedTextCache.HTML, referenceIndex,
+                                    index.normalizerRules);
+            final String text = cached != null ? cached[0] : normalize(getRawText(false), normalizer);
+            return matches(text, searchTokens, orderedMatchPattern);
+        }
+
+        @Override
+        Matcher prepareMatch(final boolean swapPairEntries) {
+            // Only load the HTML if its normalized text is not cached.
+            final String[] cached = index.dict.normalizedTexts.get(NormalizedTextCache.HTML, referenceIndex,
+                                    index.normalizerRules);
+            if (cached != null) {
+                return (searchTokens, orderedMatchPattern, normalizer) ->
+                       matches(cached[0], searchTokens, orderedMatchPattern);
+            }
+            final String rawText = getRawText(false);
+            return (searchTokens, orderedMatchPattern, normalizer) ->
+                   matches(normalize(rawText, normalizer), searchTokens, orderedMatchPattern);
+        }
+
+        private String normalize(final String rawText, final Transliterator normalizer) {
+            final String text = normalizer.transform(rawText);
+            index.dict.normalizedTexts.put(NormalizedTextCache.HTML, referenceIndex, index.normalizerRules,
+                                           new String[] {text});
+            return text;
+        }
+
+        private static RowMatchType matches(final String text, final List<String> searchTokens,
+                                            final Pattern orderedMatchPattern) {
             if (orderedMatchPattern.matcher(text).find()) {
                 return RowMatchType.ORDERED_MATCH;
             }
@@ -242,6 +284,8 @@ public class HtmlEntry extends AbstractEntry implements Comparable<HtmlEntry> {
 
         // Not sure this volatile is right, but oh well.
         volatile SoftReference<String> htmlRef = new SoftReference<>(null);
+        // getHtml().length() once known, otherwise -1.
+        private volatile int htmlLength = -1;
 
         private LazyHtmlLoader(final DataInput inp, List<DataInputBuffer> data, int index) throws IOException {
             this.data = data;
@@ -269,19 +313,49 @@ public class HtmlEntry extends AbstractEntry implements Comparable<HtmlEntry> {
             }
             System.out.println("Loading Html: numBytes=" + numBytes + ", numZipBytes="
                                + buf.limit());
-            final byte[] zipBytes = new byte[buf.limit()];
-            buf.rewind();
-            buf.readFully(zipBytes);
+            final InflaterPool inflater = InflaterPool.get();
             try {
-                final byte[] bytes = StringUtil.unzipFully(zipBytes, numBytes);
-                // Cannot use StandardCharsets due to older Android.
-                html = new String(bytes, StandardCharsets.UTF_8);
+                synchronized (buf) {
+                    buf.rewind();
+                    inflater.read(buf, buf.limit());
+                }
+                html = inflater.gunzipString(buf.limit(), numBytes);
             } catch (IOException e) {
                 throw new RuntimeException("Dictionary HTML data corrupted", e);
+            } finally {
+                inflater.recycle();
             }
             htmlRef = new SoftReference<>(html);
             return html;
         }
+
+        /**
+         * @return getHtml().length(), counted from the UTF-8 data instead
+         * of decoding it, unless the HTML is loaded anyway.
+         */
+        int getHtmlLength() {
+            int length = htmlLength;
+            if (length != -1) {
+                return length;
+            }
+            final String html = htmlRef.get();
+            if (html != null || data == null) {
+                length = (html != null ? html : getHtml()).length();
+            } else {
+                final DataInputBuffer bytes = data.get(index);
+                length = 0;
+                for (int n = bytes.limit(); n > 0; --n) {
+                    final int b = bytes.readUnsignedByte();
+                    // Continuation bytes do not start a character, and
+                    // 4 byte sequences need a surrogate pair.
+                    if ((b & 0xc0) != 0x80) {
+                        length += (b & 0xf8) == 0xf0 ? 2 : 1;
+                    }
+                }
+            }
+            htmlLength = length;
+            return length;
+        }
     }
 
 }
@@ -14,37 +14,35 @@
 
 package com.hughes.android.dictionary.engine;
 
+import com.hughes.android.dictionary.CollatorWrapper;
 import com.hughes.android.dictionary.engine.DictionaryInfo.IndexInfo;
 import com.hughes.android.dictionary.engine.RowBase.RowKey;
-import com.hughes.util.CachingList;
 import com.hughes.util.DataInputBuffer;
 import com.hughes.util.StringUtil;
 import com.hughes.util.TransformingList;
-import com.hughes.util.raf.RAFList;
 import com.hughes.util.raf.RAFListSerializer;
-import com.hughes.util.raf.UniformRAFList;
 import com.ibm.icu.text.Transliterator;
 
-import java.io.BufferedOutputStream;
 import java.io.DataInput;
 import java.io.DataOutput;
-import java.io.DataOutputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
-import java.io.RandomAccessFile;
 import java.util.AbstractList;
+import java.util.AbstractSet;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -63,7 +61,15 @@ public final class Index {
     public final String normalizerRules;
 
     // Built from the two above.
-    private Transliterator normalizer;
+    private volatile Transliterator normalizer;
+    // Transliterators synchronize internally, so parallel
+    // searches borrow a separate one for each task.
+    private final ObjectPool<Transliterator> normalizers = new ObjectPool<Transliterator>() {
+        @Override
+        protected Transliterator create() {
+            return Transliterator.createFromRules("", normalizerRules, Transliterator.FORWARD);
+        }
+    };
 
     // persisted
     public final List<IndexEntry> sortedIndexEntries;
@@ -71,6 +77,29 @@ public final class Index {
     // persisted.
     public final Set<String> stoplist;
 
+    // Everything after the header, see Body.
+    private volatile Body body;
+    // Data of an index that is loaded on first use, positioned at its start.
+    private final DataInputBuffer data;
+    private final int numEntries;
+    // How long loading the body took, 0 if not loaded from data.
+    private volatile long loadNanos;
+
+    // null until checked against the runtime collator.
+    private volatile Boolean sortKeysUsable;
+    // Whether write() should store precomputed sort keys.
+    @SuppressWarnings("WeakerAccess")
+    public boolean writeSortKeys = false;
+
+    // Whether write() should store the uncompressed index entry table.
+    @SuppressWarnings("WeakerAccess")
+    public boolean writeEntryTable = false;
+
+    // Normalized token of the first entry of each block, see blockHeads().
+    private volatile String[] blockHeads;
+    // Row of each TokenRow in rows, in order, built on first use.
+    private volatile int[] tokenRows;
+
     // One big list!
     // Various sub-types.
     // persisted
@@ -92,9 +121,12 @@ public final class Index {
         this.sortLanguage = sortLanguage;
         this.normalizerRules = normalizerRules;
         this.swapPairEntries = swapPairEntries;
-        sortedIndexEntries = new ArrayList<>();
+        final Body loaded = body = new Body(stoplist);
+        sortedIndexEntries = loaded.sortedIndexEntries;
         this.stoplist = stoplist;
-        rows = new ArrayList<>();
+        rows = loaded.rows;
+        data = null;
+        numEntries = 0;
 
         normalizer = null;
     }
@@ -103,11 +135,17 @@ public final class Index {
      * Deferred initialization because it can be slow.
      */
     @SuppressWarnings("WeakerAccess")
-    public synchronized Transliterator normalizer() {
-        if (normalizer == null) {
-            normalizer = TransliteratorManager.get(normalizerRules);
+    public Transliterator normalizer() {
+        Transliterator result = normalizer;
+        if (result == null) {
+            synchronized (this) {
+                result = normalizer;
+                if (result == null) {
+                    result = normalizer = TransliteratorManager.get(normalizerRules);
+                }
+            }
         }
-        return normalizer;
+        return result;
     }
 
     /**
@@ -120,59 +158,213 @@ public final class Index {
     }
 
     public Index(final Dictionary dict, final DataInputBuffer raf) throws IOException {
+        this(dict, raf, false);
+    }
+
+    /**
+     * @param lazy only read the header now and the rest on first use,
+     *             raf must then be for this index alone and start with it.
+     */
+    Index(final Dictionary dict, final DataInputBuffer raf, final boolean lazy) throws IOException {
         this.dict = dict;
         shortName = raf.readUTF();
         longName = raf.readUTF();
-        final String languageCode = raf.readUTF();
-        sortLanguage = Language.lookup(languageCode);
+        sortLanguage = Language.lookup(raf.readUTF());
         normalizerRules = raf.readUTF();
         swapPairEntries = raf.readBoolean();
         if (dict.dictFileVersion >= 2) {
             mainTokenCount = raf.readInt();
         }
-        sortedIndexEntries = CachingList.create(
-                                 RAFList.create(raf, new IndexEntrySerializer(),
-                                                dict.dictFileVersion, dict.dictInfo + " idx " + languageCode + ": "), CACHE_SIZE, true);
-        if (dict.dictFileVersion >= 7) {
-            int count = StringUtil.readVarInt(raf);
-            stoplist = new HashSet<>(count);
-            for (int i = 0; i < count; ++i) {
-                stoplist.add(raf.readUTF());
-            }
-        } else if (dict.dictFileVersion >= 4) {
-            stoplist = new HashSet<>();
-            raf.readInt(); // length
-            raf.skipBytes(18);
-            byte b = raf.readByte();
-            raf.skipBytes(b == 'L' ? 71 : 33);
-            while ((b = raf.readByte()) == 0x74) {
-                stoplist.add(raf.readUTF());
-            }
-            if (b != 0x78) throw new IOException("Invalid data in dictionary stoplist!");
+        if (lazy && dict.dictFileVersion >= 7) {
+            data = raf;
+            // Start of the sortedIndexEntries header, so getIndexInfo()
+            // does not need to load anything.
+            numEntries = StringUtil.readVarInt(raf);
+            sortedIndexEntries = new LazyEntries();
+            stoplist = new LazyStoplist();
+            rows = new LazyRows();
         } else {
-            stoplist = Collections.emptySet();
+            data = null;
+            final Body loaded = body = new Body(raf);
+            numEntries = loaded.sortedIndexEntries.size();
+            sortedIndexEntries = loaded.sortedIndexEntries;
+            stoplist = loaded.stoplist;
+            rows = loaded.rows;
+        }
+    }
+
+    /**
+     * The index data after the header, which is only needed once the
+     * index is used: a dictionary with many indices is then opened
+     * without reading the stoplists and list headers of all of them.
+     */
+    private final class Body {
+        final List<IndexEntry> sortedIndexEntries;
+        final Set<String> stoplist;
+        // persisted, optional (version 8).
+        final SortKeyTable sortKeys;
+        // persisted, optional (version 8).
+        final IndexEntryTable entryTable;
+        // persisted (version 8): tokens of sortedIndexEntries are front-coded.
+        final boolean frontCodedEntries;
+        // Entries per block of sortedIndexEntries, 0 if not read from blocks.
+        final int entryBlockSize;
+        // persisted, optional (version 8): normalized token of the first
+        // entry of each block of sortedIndexEntries.
+        final DataInputBuffer blockHeadData;
+        final List<RowBase> rows;
+        // The stored rows behind rows, null if not read from a file.
+        final UniformList<RowBase> rowTable;
+
+        Body(final Set<String> stoplist) {
+            sortedIndexEntries = new ArrayList<>();
+            this.stoplist = stoplist;
+            sortKeys = null;
+            entryTable = null;
+            frontCodedEntries = false;
+            entryBlockSize = 0;
+            blockHeadData = null;
+            rows = new ArrayList<>();
+            rowTable = null;
+        }
+
+        // Reads from the start of the sortedIndexEntries header.
+        Body(final DataInputBuffer raf) throws IOException {
+            // Only read lazily, after the flags below are known.
+            final List<IndexEntry> entries = BlockList.create(raf, new IndexEntrySerializer(this), dict.blockCache,
+                                             dict.dictFileVersion, dict.dictInfo + " idx " + sortLanguage.getIsoCode() + ": ");
+            entryBlockSize = entries instanceof BlockList ? ((BlockList<IndexEntry>) entries).blockSize() : 0;
+            sortedIndexEntries = new ConcurrentCachingList<>(entries, CACHE_SIZE);
+            if (dict.dictFileVersion >= 7) {
+                int count = StringUtil.readVarInt(raf);
+                stoplist = new HashSet<>(count);
+                for (int i = 0; i < count; ++i) {
+                    stoplist.add(raf.readUTF());
+                }
+            } else if (dict.dictFileVersion >= 4) {
+                stoplist = new HashSet<>();
+                raf.readInt(); // length
+                raf.skipBytes(18);
+                byte b = raf.readByte();
+                raf.skipBytes(b == 'L' ? 71 : 33);
+                while ((b = raf.readByte()) == 0x74) {
+                    stoplist.add(raf.readUTF());
+                }
+                if (b != 0x78) throw new IOException("Invalid data in dictionary stoplist!");
+            } else {
+                stoplist = Collections.emptySet();
+            }
+            if (dict.dictFileVersion >= 8) {
+                final int flags = StringUtil.readVarInt(raf);
+                sortKeys = (flags & 1) != 0 ? SortKeyTable.read(raf, sortedIndexEntries.size()) : null;
+                entryTable = (flags & 2) != 0 ? IndexEntryTable.read(raf, sortedIndexEntries.size()) : null;
+                frontCodedEntries = (flags & 4) != 0;
+                blockHeadData = (flags & 8) != 0 ? raf.slice(raf.readInt()) : null;
+            } else {
+                sortKeys = null;
+                entryTable = null;
+                frontCodedEntries = false;
+                blockHeadData = null;
+            }
+            rowTable = new UniformList<>(raf, new RowBase.Serializer(Index.this));
+            rows = new ConcurrentCachingList<>(rowTable, CACHE_SIZE);
         }
-        rows = CachingList.create(
-                   UniformRAFList.create(raf, new RowBase.Serializer(this)),
-                   CACHE_SIZE, true);
     }
 
-    public void write(final DataOutput out) throws IOException {
-        RandomAccessFile raf = (RandomAccessFile)out;
-        raf.writeUTF(shortName);
-        raf.writeUTF(longName);
-        raf.writeUTF(sortLanguage.getIsoCode());
-        raf.writeUTF(normalizerRules);
-        raf.writeBoolean(swapPairEntries);
-        raf.writeInt(mainTokenCount);
-        RAFList.write(raf, sortedIndexEntries, new IndexEntrySerializer(), 32, true);
-        StringUtil.writeVarInt(raf, stoplist.size());
-        for (String i : stoplist) {
-            raf.writeUTF(i);
+    private Body body() {
+        Body result = body;
+        if (result == null) {
+            synchronized (this) {
+                result = body;
+                if (result == null) {
+                    final long start = System.nanoTime();
+                    try {
+                        // Skip the header read by the constructor.
+                        data.rewind();
+                        for (int i = 0; i < 4; ++i) {
+                            data.readUTF();
+                        }
+                        data.readBoolean();
+                        data.readInt();
+                        result = new Body(data);
+                    } catch (IOException e) {
+                        throw new RuntimeException("Dictionary index data corrupted", e);
+                    }
+                    loadNanos = System.nanoTime() - start;
+                    body = result;
+                }
+            }
         }
-        DataOutputStream outb = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(raf.getFD())));
-        UniformRAFList.write(outb, rows, new RowBase.Serializer(this), 3 /* bytes per entry */);
-        outb.flush();
+        return result;
+    }
+
+    /**
+     * @return whether everything after the header has been read, which
+     * happens on first use of the index.
+     */
+    public boolean isLoaded() {
+        return body != null;
+    }
+
+    /**
+     * @return the time it took to load the index on first use, in
+     * nanoseconds, or 0 if it has not been or was loaded when opened.
+     */
+    public long loadNanos() {
+        return loadNanos;
+    }
+
+    // The public lists of an index that is loaded on first use.
+
+    private final class LazyEntries extends AbstractList<IndexEntry> implements RandomAccess {
+        @Override
+        public IndexEntry get(final int i) {
+            return body().sortedIndexEntries.get(i);
+        }
+
+        @Override
+        public int size() {
+            return numEntries;
+        }
+    }
+
+    private final class LazyRows extends AbstractList<RowBase> implements RandomAccess {
+        @Override
+        public RowBase get(final int i) {
+            return body().rows.get(i);
+        }
+
+        @Override
+        public int size() {
+            return body().rows.size();
+        }
+    }
+
+    private final class LazyStoplist extends AbstractSet<String> {
+        @Override
+        public boolean contains(final Object o) {
+            return body().stoplist.contains(o);
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return Collections.unmodifiableSet(body().stoplist).iterator();
+        }
+
+        @Override
+        public int size() {
+            return body().stoplist.size();
+        }
+    }
+
+    void addTo(final DictionaryWriter.IndexWriter writer) throws IOException {
+        for (final IndexEntry entry : sortedIndexEntries) {
+            writer.addIndexEntry(entry);
+        }
+        for (final RowBase row : rows) {
+            writer.addRow(row);
+        }
+        writer.mainTokenCount = mainTokenCount;
     }
 
     public void print(final PrintStream out) {
@@ -181,12 +373,44 @@ public final class Index {
         }
     }
 
-    private final class IndexEntrySerializer implements RAFListSerializer<IndexEntry> {
+    private final class IndexEntrySerializer
+        implements BlockList.BlockSerializer<IndexEntry, FrontCoder.IndexTokens> {
+        // Its flags are only known once the entries list is created.
+        private final Body body;
+
+        IndexEntrySerializer(final Body body) {
+            this.body = body;
+        }
+
         @Override
         public IndexEntry read(DataInput raf, int index) throws IOException {
             return new IndexEntry(Index.this, raf);
         }
 
+        @Override
+        public FrontCoder.IndexTokens newBlockState() {
+            return body.frontCodedEntries ? new FrontCoder.IndexTokens() : null;
+        }
+
+        @Override
+        public void skip(DataInput raf, int index, FrontCoder.IndexTokens tokens) throws IOException {
+            if (tokens == null) {
+                read(raf, index);
+                return;
+            }
+            IndexEntry.readFrontCodedBase(raf, tokens);
+            StringUtil.readVarInt(raf);
+            StringUtil.readVarInt(raf);
+            for (int n = StringUtil.readVarInt(raf); n > 0; --n) {
+                StringUtil.readVarInt(raf);
+            }
+        }
+
+        @Override
+        public IndexEntry read(DataInput raf, int index, FrontCoder.IndexTokens tokens) throws IOException {
+            return tokens == null ? read(raf, index) : new IndexEntry(Index.this, raf, tokens);
+        }
+
         @Override
         public void write(DataOutput raf, IndexEntry t) throws IOException {
             t.write(raf);
@@ -223,37 +447,69 @@ public final class Index {
             final boolean hasNormalizedForm = raf.readBoolean();
             normalizedToken = hasNormalizedForm ? raf.readUTF() : token;
             if (index.dict.dictFileVersion >= 7) {
-                int size = StringUtil.readVarInt(raf);
-                if (size == 0) {
-                    this.htmlEntries = Collections.emptyList();
-                } else {
-                    final int[] htmlEntryIndices = new int[size];
-                    for (int i = 0; i < size; ++i) {
-                        htmlEntryIndices[i] = StringUtil.readVarInt(raf);
-                    }
-                    this.htmlEntries = new AbstractList<HtmlEntry>() {
-                        @Override
-                        public HtmlEntry get(int i) {
-                            return index.dict.htmlEntries.get(htmlEntryIndices[i]);
-                        }
-
-                        @Override
-                        public int size() {
-                            return htmlEntryIndices.length;
-                        }
-                    };
-                }
+                this.htmlEntries = readHtmlEntries(index, raf);
             } else if (index.dict.dictFileVersion == 6) {
-                this.htmlEntries = CachingList.create(
-                                       RAFList.create((DataInputBuffer)raf, index.dict.htmlEntryIndexSerializer,
-                                                      index.dict.dictFileVersion,
-                                                      index.dict.dictInfo + " htmlEntries: "), 1, false);
+                this.htmlEntries = BlockList.create((DataInputBuffer)raf, index.dict.htmlEntryIndexSerializer,
+                                                    index.dict.blockCache, index.dict.dictFileVersion,
+                                                    index.dict.dictInfo + " htmlEntries: ");
             } else {
                 this.htmlEntries = Collections.emptyList();
             }
         }
 
+        // Front-coded entry, tokens hold the previous ones of the block.
+        IndexEntry(final Index index, final DataInput raf, final FrontCoder.IndexTokens tokens) throws IOException {
+            readFrontCodedBase(raf, tokens);
+            token = tokens.token.decode();
+            startRow = StringUtil.readVarInt(raf);
+            numRows = StringUtil.readVarInt(raf);
+            normalizedToken = tokens.hasNormalizedForm ? tokens.normalizedToken.decode() : token;
+            htmlEntries = readHtmlEntries(index, raf);
+        }
+
+        // Moves tokens to the entry, leaving raf at startRow.
+        static void readFrontCodedBase(final DataInput raf, final FrontCoder.IndexTokens tokens) throws IOException {
+            tokens.hasNormalizedForm = raf.readBoolean();
+            tokens.token.read(raf);
+            if (tokens.hasNormalizedForm) {
+                tokens.normalizedToken.read(raf);
+            } else {
+                tokens.normalizedToken.copyFrom(tokens.token);
+            }
+        }
+
+        private static List<HtmlEntry> readHtmlEntries(final Index index, final DataInput raf) throws IOException {
+            final int size = StringUtil.readVarInt(raf);
+            if (size == 0) {
+                return Collections.emptyList();
+            }
+            final int[] htmlEntryIndices = new int[size];
+            for (int i = 0; i < size; ++i) {
+                htmlEntryIndices[i] = StringUtil.readVarInt(raf);
+            }
+            return new AbstractList<HtmlEntry>() {
+                @Override
+                public HtmlEntry get(int i) {
+                    return index.dict.htmlEntries.get(htmlEntryIndices[i]);
+                }
+
+                @Override
+                public int size() {
+                    return htmlEntryIndices.length;
+                }
+            };
+        }
+
         public void write(DataOutput raf) throws IOException {
+            writeBase(raf, token, normalizedToken, startRow, numRows);
+            StringUtil.writeVarInt(raf, htmlEntries.size());
+            for (HtmlEntry e : htmlEntries)
+                StringUtil.writeVarInt(raf, e.index());
+        }
+
+        // Everything but the HtmlEntry references.
+        static void writeBase(DataOutput raf, String token, String normalizedToken,
+                              int startRow, int numRows) throws IOException {
             raf.writeUTF(token);
             StringUtil.writeVarInt(raf, startRow);
             StringUtil.writeVarInt(raf, numRows);
@@ -262,9 +518,21 @@ public final class Index {
             if (hasNormalizedForm) {
                 raf.writeUTF(normalizedToken);
             }
-            StringUtil.writeVarInt(raf, htmlEntries.size());
-            for (HtmlEntry e : htmlEntries)
-                StringUtil.writeVarInt(raf, e.index());
+        }
+
+        // Front-coded version of writeBase, tokens hold the previous ones of the block.
+        static void writeFrontCodedBase(DataOutput raf, FrontCoder.IndexTokens tokens, String token,
+                                        String normalizedToken, int startRow, int numRows) throws IOException {
+            final boolean hasNormalizedForm = !token.equals(normalizedToken);
+            raf.writeBoolean(hasNormalizedForm);
+            tokens.token.write(raf, token);
+            if (hasNormalizedForm) {
+                tokens.normalizedToken.write(raf, normalizedToken);
+            } else {
+                tokens.normalizedToken.copyFrom(tokens.token);
+            }
+            StringUtil.writeVarInt(raf, startRow);
+            StringUtil.writeVarInt(raf, numRows);
         }
 
         public String toString() {
@@ -276,16 +544,121 @@ public final class Index {
         }
     }
 
+    /**
+     * @return the type of rows.get(i), one of the RowBase.TYPE_
+     * constants, read without creating the row.
+     */
+    public int rowType(final int i) {
+        final UniformList<RowBase> table = body().rowTable;
+        if (table == null) {
+            return RowBase.Serializer.type(rows.get(i));
+        }
+        return RowBase.Serializer.type(table.readBits(i), table.entrySize());
+    }
+
+    /**
+     * @return the referenceIndex of rows.get(i), read without creating the row.
+     */
+    public int rowReference(final int i) {
+        final UniformList<RowBase> table = body().rowTable;
+        if (table == null) {
+            return rows.get(i).referenceIndex;
+        }
+        return RowBase.Serializer.referenceIndex(table.readBits(i), table.entrySize());
+    }
+
+    /**
+     * @return the row of the TokenRow that row i is filed under (i
+     * itself for a TokenRow), found without reading any rows.
+     */
+    public int tokenRowIndex(final int i) {
+        if (i < 0 || i >= rows.size()) {
+            throw new IndexOutOfBoundsException("Row " + i + ", size " + rows.size());
+        }
+        final int[] starts = tokenRows();
+        if (starts == null) {
+            // Rows may still be added to an index built in memory.
+            int row = i;
+            while (row > 0 && !isTokenRow(rowType(row))) {
+                --row;
+            }
+            return row;
+        }
+        final int pos = Arrays.binarySearch(starts, i);
+        if (pos == -1) {
+            throw new RuntimeException("No TokenRow before row " + i);
+        }
+        return pos >= 0 ? starts[pos] : starts[-pos - 2];
+    }
+
+    private static boolean isTokenRow(final int type) {
+        return type == RowBase.TYPE_TOKEN || type == RowBase.TYPE_TOKEN_NO_MAIN;
+    }
+
+    /**
+     * @return the rows of all TokenRows, or null if the index was not
+     * read from a file.
+     */
+    private int[] tokenRows() {
+        if (body().rowTable == null) {
+            return null;
+        }
+        int[] result = tokenRows;
+        if (result == null) {
+            synchronized (this) {
+                result = tokenRows;
+                if (result == null) {
+                    // Usually one TokenRow for each index entry.
+                    result = new int[Math.max(16, sortedIndexEntries.size())];
+                    int count = 0;
+                    final RowCursor cursor = rowCursor().reset(0, Integer.MAX_VALUE);
+                    while (cursor.next()) {
+                        if (isTokenRow(cursor.type())) {
+                            if (count == result.length) {
+                                result = Arrays.copyOf(result, 2 * count);
+                            }
+                            result[count++] = cursor.row();
+                        }
+                    }
+                    if (count != result.length) {
+                        result = Arrays.copyOf(result, count);
+                    }
+                    tokenRows = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a new cursor for scanning ranges of rows, for use by a single thread.
+     */
+    public RowCursor rowCursor() {
+        return new RowCursor(this, body().rowTable);
+    }
+
+    /**
+     * @return a new flyweight accessor for sortedIndexEntries, for use by a single thread.
+     */
+    public IndexEntryView entryView() {
+        return new IndexEntryView(this, body().entryTable);
+    }
+
     private static final TransformingList.Transformer<IndexEntry, String> INDEX_ENTRY_TO_TOKEN = t1 -> t1.token;
 
     public IndexEntry findExact(final String exactToken) {
-        final int result = Collections.binarySearch(
-                               TransformingList.create(sortedIndexEntries, INDEX_ENTRY_TO_TOKEN), exactToken,
-                               getSortComparator());
-        if (result >= 0) {
-            return sortedIndexEntries.get(result);
+        final Comparator<Object> sortCollator = sortLanguage.borrowCollator();
+        try {
+            final int result = Collections.binarySearch(
+                                   TransformingList.create(sortedIndexEntries, INDEX_ENTRY_TO_TOKEN), exactToken,
+                                   new NormalizeComparator(normalizer(), sortCollator, dict.dictFileVersion));
+            if (result >= 0) {
+                return sortedIndexEntries.get(result);
+            }
+            return null;
+        } finally {
+            sortLanguage.releaseCollator(sortCollator);
         }
-        return null;
     }
 
     public IndexEntry findInsertionPoint(String token, final AtomicBoolean interrupted) {
@@ -298,9 +671,135 @@ public final class Index {
         return sortedIndexEntries.get(index);
     }
 
-    private int compareIdx(String token, final Comparator<Object> sortCollator, int idx) {
-        final IndexEntry entry = sortedIndexEntries.get(idx);
-        return NormalizeComparator.compareWithoutDash(token, entry.normalizedToken(), sortCollator, dict.dictFileVersion);
+    // Same as compareWithoutDash(token, normalized token of entry idx).
+    private int compareIdx(String token, final Comparator<Object> sortCollator,
+                           final SortKeyTable keys, final byte[] tokenKey,
+                           final PrimaryCollation primary, final IndexEntryView view, int idx) {
+        if (keys != null) {
+            return keys.compareWithoutDash(idx, tokenKey);
+        }
+        if (dict.dictFileVersion < 7) {
+            return 0;
+        }
+        final CharSequence entryToken = view.moveTo(idx).normalizedToken();
+        if (primary != null) {
+            final int comp = primary.compare(entryToken);
+            if (comp != 0) {
+                return comp;
+            }
+        }
+        return NormalizeComparator.compareWithoutDash(token, entryToken.toString(), sortCollator, dict.dictFileVersion);
+    }
+
+    private int compareFull(String token, final Comparator<Object> sortCollator,
+                            final PrimaryCollation primary, final CharSequence entryToken) {
+        // Only a tie in the primary weights needs the entry token as a String.
+        if (primary != null) {
+            final int comp = primary.compare(entryToken);
+            if (comp != 0) {
+                return comp;
+            }
+        }
+        return compareFull(token, sortCollator, entryToken.toString());
+    }
+
+    private int compareFull(String token, final Comparator<Object> sortCollator, final String entryToken) {
+        final int comp = NormalizeComparator.compareWithoutDash(token, entryToken, sortCollator, dict.dictFileVersion);
+        return comp != 0 ? comp : sortCollator.compare(token, entryToken);
+    }
+
+    /**
+     * @return the normalized token of the first entry of each block of
+     * sortedIndexEntries, or null if they are not read from blocks.
+     * Built on first use, from the stored block heads or else by reading
+     * the first entry of every block once.
+     */
+    private String[] blockHeads() {
+        final Body b = body();
+        if (b.entryBlockSize <= 1) {
+            return null;
+        }
+        String[] result = blockHeads;
+        if (result == null) {
+            synchronized (this) {
+                result = blockHeads;
+                if (result == null) {
+                    result = new String[(b.sortedIndexEntries.size() + b.entryBlockSize - 1) / b.entryBlockSize];
+                    if (b.blockHeadData != null) {
+                        try {
+                            b.blockHeadData.rewind();
+                            for (int i = 0; i < result.length; ++i) {
+                                result[i] = b.blockHeadData.readUTF();
+                            }
+                        } catch (IOException e) {
+                            throw new RuntimeException("Dictionary index block heads corrupted", e);
+                        }
+                    } else {
+                        final IndexEntryView view = entryView();
+                        for (int i = 0; i < result.length; ++i) {
+                            result[i] = view.moveTo(i * b.entryBlockSize).normalizedTokenString();
+                        }
+                    }
+                    blockHeads = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the stored sort keys if there are any and they were
+     * created by a collator giving the same results as ours.
+     * They are only checked, and so used, if the index also stores
+     * its block heads or entry table.
+     */
+    private SortKeyTable usableSortKeys(final Comparator<Object> sortCollator) {
+        final Body b = body();
+        final SortKeyTable sortKeys = b.sortKeys;
+        if (sortKeys == null) {
+            return null;
+        }
+        if (b.blockHeadData == null && b.entryTable == null) {
+            // Checking would inflate every block of the entries.
+            return null;
+        }
+        Boolean usable = sortKeysUsable;
+        if (usable == null) {
+            synchronized (this) {
+                usable = sortKeysUsable;
+                if (usable == null) {
+                    usable = sortKeysUsable = sortKeysMatch(sortKeys, sortCollator);
+                    if (!usable) {
+                        System.out.println("Stored sort keys do not match collator, not using them for: " + shortName);
+                    }
+                }
+            }
+        }
+        return usable ? sortKeys : null;
+    }
+
+    // Checks the keys of the first entry of every block, and of the last
+    // entry, against sortCollator. Their tokens are read from the stored
+    // block heads or entry table, which usableSortKeys requires.
+    // A collator that sorts differently almost always gives different
+    // keys for some of them.
+    private boolean sortKeysMatch(final SortKeyTable sortKeys, final Comparator<Object> sortCollator) {
+        final int size = sortedIndexEntries.size();
+        if (sortKeys.size() != size) {
+            return false;
+        }
+        final int blockSize = Math.max(1, body().entryBlockSize);
+        final String[] heads = body().blockHeadData != null ? blockHeads() : null;
+        final IndexEntryView view = entryView();
+        for (int i = 0; i < size; i += blockSize) {
+            final String normalized = heads != null ? heads[i / blockSize]
+                                      : view.moveTo(i).normalizedTokenString();
+            if (!sortKeys.matches(i, normalized, sortCollator)) {
+                return false;
+            }
+        }
+        return size == 0 || sortKeys.matches(size - 1, view.moveTo(size - 1).normalizedTokenString(),
+                                             sortCollator);
     }
 
     private int findMatchLen(final Comparator<Object> sortCollator, String a, String b) {
@@ -318,46 +817,86 @@ public final class Index {
     }
 
     private int findInsertionPointIndex(String token, final AtomicBoolean interrupted) {
+        return findInsertionPointIndex(token, interrupted, entryView());
+    }
+
+    private int findInsertionPointIndex(String token, final AtomicBoolean interrupted,
+                                        final IndexEntryView view) {
+        final Comparator<Object> sortCollator = sortLanguage.borrowCollator();
+        try {
+            return findInsertionPointIndex(token, interrupted, view, sortCollator);
+        } finally {
+            sortLanguage.releaseCollator(sortCollator);
+        }
+    }
+
+    private int findInsertionPointIndex(String token, final AtomicBoolean interrupted,
+                                        final IndexEntryView view, final Comparator<Object> sortCollator) {
         String orig_token = token;
         token = normalizeToken(token);
 
         int start = 0;
         int end = sortedIndexEntries.size();
 
-        final Comparator<Object> sortCollator = sortLanguage.getCollator();
+        // With precomputed sort keys the probes only need plain byte compares.
+        final SortKeyTable keys = usableSortKeys(sortCollator);
+        final byte[] tokenKey = keys != null ? CollatorWrapper.getSortKey(sortCollator, NormalizeComparator.withoutDash(token)) : null;
+        final byte[] fullTokenKey = keys != null ? CollatorWrapper.getSortKey(sortCollator, token) : null;
+        // Otherwise most probes are decided by primary weights, without
+        // creating a String for the entry.
+        final PrimaryCollation primary = keys == null
+                ? PrimaryCollation.create(sortCollator, token, dict.dictFileVersion >= 7) : null;
+        final int entryBlockSize = body().entryBlockSize;
+        if (keys == null && entryBlockSize > 1) {
+            // Find the block first from the block heads, then only the
+            // entries of that one block are decoded.
+            final String[] heads = blockHeads();
+            int lowBlock = 0;
+            int highBlock = (end - 1) / entryBlockSize;
+            while (lowBlock < highBlock) {
+                if (interrupted != null && interrupted.get()) {
+                    return -1;
+                }
+                final int midBlock = (lowBlock + highBlock + 1) / 2;
+                final int comp = compareFull(token, sortCollator, primary, heads[midBlock]);
+                if (comp < 0) {
+                    highBlock = midBlock - 1;
+                } else {
+                    lowBlock = midBlock;
+                }
+            }
+            start = lowBlock * entryBlockSize;
+            end = Math.min(end, start + entryBlockSize);
+        }
         while (start < end) {
             final int mid = (start + end) / 2;
             if (interrupted != null && interrupted.get()) {
                 return -1;
             }
-            final IndexEntry midEntry = sortedIndexEntries.get(mid);
 
-            int comp = NormalizeComparator.compareWithoutDash(token, midEntry.normalizedToken(), sortCollator, dict.dictFileVersion);
-            if (comp == 0)
-                comp = sortCollator.compare(token, midEntry.normalizedToken());
+            final int comp = keys != null ? keys.compare(mid, tokenKey, fullTokenKey)
+                             : compareFull(token, sortCollator, primary, view.moveTo(mid).normalizedToken());
             if (comp == 0) {
                 start = end = mid;
                 break;
             } else if (comp < 0) {
-                // System.out.println("Upper bound: " + midEntry + ", norm=" +
-                // midEntry.normalizedToken() + ", mid=" + mid);
+                // System.out.println("Upper bound: " + mid);
 
                 // Hack for robustness if sort order is broken
                 if (mid + 2 < end &&
-                    compareIdx(token, sortCollator, mid + 1) > 0 &&
-                    compareIdx(token, sortCollator, mid + 2) > 0) {
+                    compareIdx(token, sortCollator, keys, tokenKey, primary, view, mid + 1) > 0 &&
+                    compareIdx(token, sortCollator, keys, tokenKey, primary, view, mid + 2) > 0) {
                     start = mid;
                 } else {
                     end = mid;
                 }
             } else {
-                // System.out.println("Lower bound: " + midEntry + ", norm=" +
-                // midEntry.normalizedToken() + ", mid=" + mid);
+                // System.out.println("Lower bound: " + mid);
 
                 // Hack for robustness if sort order is broken
                 if (mid - 2 >= start &&
-                    compareIdx(token, sortCollator, mid - 1) < 0 &&
-                    compareIdx(token, sortCollator, mid - 2) < 0) {
+                    compareIdx(token, sortCollator, keys, tokenKey, primary, view, mid - 1) < 0 &&
+                    compareIdx(token, sortCollator, keys, tokenKey, primary, view, mid - 2) < 0) {
                     end = mid + 1;
                 } else {
                     start = mid + 1;
@@ -369,8 +908,8 @@ public final class Index {
         // our result to it.
         // This fixes up the binary search result if no match is found.
         if (start > 0 && start < sortedIndexEntries.size()) {
-            String prev = sortedIndexEntries.get(start - 1).normalizedToken();
-            String next = sortedIndexEntries.get(start).normalizedToken();
+            String prev = view.moveTo(start - 1).normalizedTokenString();
+            String next = view.moveTo(start).normalizedTokenString();
             if (findMatchLen(sortCollator, token, prev) >= findMatchLen(sortCollator, token, next))
                 start--;
         }
@@ -380,13 +919,15 @@ public final class Index {
         // This fixes up the binary search result if there are multiple entries
         // that compare equal in sort order so we go to the first one.
         int result = Math.min(start, sortedIndexEntries.size() - 1);
-        result = windBackCase(sortedIndexEntries.get(result).normalizedToken(), result, interrupted);
+        result = windBackCase(view.moveTo(result).normalizedTokenString(), result, interrupted, view);
 
         // If the search term was normalized, try to find an exact match first.
         // This only searches downward, so it is important that the previous
         // steps gave resulted in the very first potential candidate.
         if (!orig_token.equalsIgnoreCase(token)) {
-            int matchLen = findMatchLen(sortCollator, token, sortedIndexEntries.get(start).normalizedToken());
+            // start is past the last entry if the token sorts after it.
+            int matchLen = findMatchLen(sortCollator, token,
+                                        view.moveTo(Math.min(start, sortedIndexEntries.size() - 1)).normalizedTokenString());
             int scan = result;
             while (scan >= 0 && scan < sortedIndexEntries.size()) {
                 IndexEntry e = sortedIndexEntries.get(scan);
@@ -396,7 +937,7 @@ public final class Index {
                 }
                 if (matchLen > findMatchLen(sortCollator, token, e.normalizedToken()))
                     break;
-                if (interrupted != null && interrupted.get()) return start;
+                if (interrupted != null && interrupted.get()) return -1;
                 scan++;
             }
         }
@@ -404,8 +945,9 @@ public final class Index {
         return result;
     }
 
-    private int windBackCase(final String token, int result, final AtomicBoolean interrupted) {
-        while (result > 0 && sortedIndexEntries.get(result - 1).normalizedToken().equals(token)) {
+    private int windBackCase(final String token, int result, final AtomicBoolean interrupted,
+                             final IndexEntryView view) {
+        while (result > 0 && token.contentEquals(view.moveTo(result - 1).normalizedToken())) {
             --result;
             if (interrupted != null && interrupted.get()) {
                 return result;
@@ -419,28 +961,35 @@ public final class Index {
     }
 
     private static final int MAX_SEARCH_ROWS = 1000;
+    // Number of candidate rows collected before matching them in parallel.
+    private static final int PARALLEL_BATCH_ROWS = 256;
+    // Number of rows matched by one fork/join leaf task.
+    private static final int PARALLEL_CHUNK_ROWS = 16;
 
-    private final Map<String, Integer> prefixToNumRows = new HashMap<>();
+    /**
+     * Memo of getUpperBoundOnRowsStartingWith, capacity can be changed.
+     */
+    public final PrefixCountCache prefixToNumRows = new PrefixCountCache(PrefixCountCache.DEFAULT_CAPACITY);
 
-    private synchronized int getUpperBoundOnRowsStartingWith(final String normalizedPrefix,
-                                                             final int maxRows, final AtomicBoolean interrupted) {
-        final Integer numRows = prefixToNumRows.get(normalizedPrefix);
-        if (numRows != null) {
+    private int getUpperBoundOnRowsStartingWith(final String normalizedPrefix,
+                                                final int maxRows, final AtomicBoolean interrupted) {
+        final int numRows = prefixToNumRows.get(normalizedPrefix);
+        if (numRows != -1) {
             return numRows;
         }
-        final int insertionPointIndex = findInsertionPointIndex(normalizedPrefix, interrupted);
+        final IndexEntryView view = entryView();
+        final int insertionPointIndex = findInsertionPointIndex(normalizedPrefix, interrupted, view);
 
         int rowCount = 0;
         for (int index = insertionPointIndex; index < sortedIndexEntries.size(); ++index) {
             if (interrupted != null && interrupted.get()) {
                 return -1;
             }
-            final IndexEntry indexEntry = sortedIndexEntries.get(index);
-            if (!indexEntry.normalizedToken.startsWith(normalizedPrefix) &&
-                !NormalizeComparator.withoutDash(indexEntry.normalizedToken).startsWith(normalizedPrefix)) {
+            view.moveTo(index);
+            if (!view.normalizedTokenStartsWith(normalizedPrefix)) {
                 break;
             }
-            rowCount += indexEntry.numRows + indexEntry.htmlEntries.size();
+            rowCount += view.numRows() + view.numHtmlEntries();
             if (rowCount > maxRows) {
                 System.out.println("Giving up, too many words with prefix: " + normalizedPrefix);
                 break;
@@ -453,9 +1002,186 @@ public final class Index {
     public List<RowBase> multiWordSearch(
             final String searchText, final List<String> searchTokens,
             final AtomicBoolean interrupted) {
+        return multiWordSearch(searchText, searchTokens, interrupted, null);
+    }
+
+    /**
+     * @param pool if not null, candidate rows are matched in parallel
+     *             on it. The result is identical to a sequential search.
+     */
+    public List<RowBase> multiWordSearch(
+            final String searchText, final List<String> searchTokens,
+            final AtomicBoolean interrupted, final ForkJoinPool pool) {
+        return multiWordSearch(searchText, searchTokens, interrupted, pool, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Like multiWordSearch(searchText, searchTokens, interrupted, pool),
+     * but only for the first maxResults rows of the result.
+     * Only those rows are kept and sorted, and searching stops once
+     * there are maxResults title and ordered matches. So like with the
+     * general limit on the number of matches, a row found later could
+     * have been sorted before some of the returned ones.
+     */
+    public List<RowBase> multiWordSearch(
+            final String searchText, final List<String> searchTokens,
+            final AtomicBoolean interrupted, final ForkJoinPool pool, final int maxResults) {
+        return multiWordSearch(searchText, searchTokens, interrupted, pool, null, maxResults);
+    }
+
+    /**
+     * Remembers the previous search, so that when the user keeps typing
+     * (e.g. "hau", "haus", "hausb") rows are only matched again if they
+     * can still match.
+     * A row matches only if it contains every search token, so if every
+     * previous token is part of one of the new ones, the rows that did not
+     * match before are skipped. If in addition the previous search went
+     * through all its candidates, the rows under the index entries it
+     * went through are only matched again if they matched then.
+     * That is the range of entries and not the prefix: with the collation
+     * an entry starting with "äün" can come after one that does not start
+     * with "äü", where the search for "äü" stopped.
+     * Either way the search runs as without a session, it just leaves
+     * out rows known not to match, so the result is the same as that of
+     * a fresh search. Anything else (backspace, different words) clears
+     * what the session knows.
+     */
+    public final class SearchSession {
+        // Bounds the memory use for searches with huge candidate sets.
+        private static final int MAX_KNOWN_NO_MATCH = 100000;
+
+        private List<String> lastSearchTokens = Collections.emptyList();
+        // The index entries the last search and the one before went
+        // through, from start to before end.
+        private int scanStart;
+        private int scanEnd;
+        private int lastScanStart;
+        private int lastScanEnd;
+        // RowKey.bits of rows that did not match.
+        private final LongHashSet knownNoMatch = new LongHashSet();
+        // Reused by each search of the session.
+        private final LongHashSet rowsAlreadySeen = new LongHashSet();
+        // RowKey.bits of the rows that matched the last search, and of
+        // the search before.
+        private LongHashSet survivors = new LongHashSet();
+        private LongHashSet lastSurvivors = new LongHashSet();
+        // Whether the last search saw all its candidates, so survivors
+        // holds every row that matched it.
+        private boolean complete;
+        // Whether only lastSurvivors can match under the entries from
+        // lastScanStart to lastScanEnd, see the class comment.
+        private boolean onlySurvivors;
+
+        public synchronized List<RowBase> multiWordSearch(
+                final String searchText, final List<String> searchTokens,
+                final AtomicBoolean interrupted) {
+            return Index.this.multiWordSearch(searchText, searchTokens, interrupted, null, this, Integer.MAX_VALUE);
+        }
+
+        public synchronized List<RowBase> multiWordSearch(
+                final String searchText, final List<String> searchTokens,
+                final AtomicBoolean interrupted, final ForkJoinPool pool) {
+            return Index.this.multiWordSearch(searchText, searchTokens, interrupted, pool, this, Integer.MAX_VALUE);
+        }
+
+        /**
+         * See Index.multiWordSearch with maxResults.
+         */
+        public synchronized List<RowBase> multiWordSearch(
+                final String searchText, final List<String> searchTokens,
+                final AtomicBoolean interrupted, final ForkJoinPool pool, final int maxResults) {
+            return Index.this.multiWordSearch(searchText, searchTokens, interrupted, pool, this, maxResults);
+        }
+
+        public synchronized void reset() {
+            lastSearchTokens = Collections.emptyList();
+            knownNoMatch.clear();
+            survivors.clear();
+            complete = false;
+            onlySurvivors = false;
+        }
+
+        // Called with the normalized tokens and the first index entry
+        // to search, once a search starts matching rows.
+        private void start(final List<String> normalizedSearchTokens, final int firstEntry) {
+            final boolean refines = refines(normalizedSearchTokens);
+            if (!refines) {
+                knownNoMatch.clear();
+            }
+            onlySurvivors = refines && complete;
+            final LongHashSet previous = survivors;
+            survivors = lastSurvivors;
+            lastSurvivors = previous;
+            survivors.clear();
+            lastScanStart = scanStart;
+            lastScanEnd = scanEnd;
+            scanStart = firstEntry;
+            scanEnd = firstEntry;
+            lastSearchTokens = new ArrayList<>(normalizedSearchTokens);
+            complete = false;
+        }
+
+        // Called with the entry after the last one of the search.
+        private void scanned(final int end) {
+            scanEnd = end;
+        }
+
+        // A row matches only if it contains all search tokens, so if every
+        // old token is contained in a new one, old non-matches cannot match now.
+        private boolean refines(final List<String> normalizedSearchTokens) {
+            if (lastSearchTokens.isEmpty()) {
+                return false;
+            }
+            for (final String lastToken : lastSearchTokens) {
+                boolean found = false;
+                for (final String token : normalizedSearchTokens) {
+                    found |= token.contains(lastToken);
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isKnownNoMatch(final long rowKey, final int entry) {
+            if (onlySurvivors && entry >= lastScanStart && entry < lastScanEnd) {
+                return !lastSurvivors.contains(rowKey);
+            }
+            return knownNoMatch.contains(rowKey);
+        }
+
+        private void addNoMatch(final long rowKey) {
+            if (knownNoMatch.size() < MAX_KNOWN_NO_MATCH) {
+                knownNoMatch.add(rowKey);
+            }
+        }
+
+        private void addSurvivor(final long rowKey) {
+            survivors.add(rowKey);
+        }
+    }
+
+    public SearchSession newSearchSession() {
+        return new SearchSession();
+    }
+
+    private List<RowBase> multiWordSearch(
+            final String searchText, final List<String> searchTokens,
+            final AtomicBoolean interrupted, final ForkJoinPool pool,
+            final SearchSession session, final int maxResults) {
         final long startMills = System.currentTimeMillis();
         final List<RowBase> result = new ArrayList<>();
 
+        final List<String> originalTokens = new ArrayList<>(searchTokens);
+        for (int i = 0; i < searchTokens.size(); ++i) {
+            if (interrupted != null && interrupted.get()) {
+                return result;
+            }
+            // Normalize them all.
+            searchTokens.set(i, normalizeToken(searchTokens.get(i)));
+        }
+
         final Set<String> normalizedNonStoplist = new HashSet<>();
 
         String bestPrefix = null;
@@ -464,12 +1190,9 @@ public final class Index {
             if (interrupted != null && interrupted.get()) {
                 return result;
             }
-            final String searchToken = searchTokens.get(i);
-            final String normalized = normalizeToken(searchToken);
-            // Normalize them all.
-            searchTokens.set(i, normalized);
+            final String normalized = searchTokens.get(i);
 
-            if (!stoplist.contains(searchToken)) {
+            if (!stoplist.contains(originalTokens.get(i))) {
                 if (normalizedNonStoplist.add(normalized)) {
                     final int numRows = getUpperBoundOnRowsStartingWith(normalized,
                                         MAX_SEARCH_ROWS, interrupted);
@@ -484,10 +1207,7 @@ public final class Index {
                 }
             }
         }
-        String searchTokensRegex = searchTokens.stream()
-            .map(Pattern::quote)
-            .collect(Collectors.joining("[\\s]*"));
-        final Pattern pattern = Pattern.compile(searchTokensRegex);
+        final Pattern pattern = searchPattern(searchTokens);
 
         if (bestPrefix == null) {
             bestPrefix = searchTokens.get(0);
@@ -497,76 +1217,427 @@ public final class Index {
                            + ", searchTokens=" + searchTokens);
 
         // Place to store the things that match.
-        final Map<RowMatchType, List<RowBase>> matches = new EnumMap<>(
-                RowMatchType.class);
-        for (final RowMatchType rowMatchType : RowMatchType.values()) {
-            if (rowMatchType != RowMatchType.NO_MATCH) {
-                matches.put(rowMatchType, new ArrayList<>());
-            }
-        }
+        final SearchResults matches = new SearchResults(maxResults);
+        addTitleMatch(searchText, pattern, matches, interrupted);
 
         int matchCount = 0;
 
-        final int exactMatchIndex = findInsertionPointIndex(searchText, interrupted);
-        if (exactMatchIndex != -1) {
-            final IndexEntry exactMatch = sortedIndexEntries.get(exactMatchIndex);
-            if (pattern.matcher(exactMatch.token).find()) {
-                matches.get(RowMatchType.TITLE_MATCH).add(rows.get(exactMatch.startRow));
-            }
-        }
-
         final String searchToken = bestPrefix;
-        final int insertionPointIndex = findInsertionPointIndex(searchToken, interrupted);
-        final Set<RowKey> rowsAlreadySeen = new HashSet<>();
-        for (int index = insertionPointIndex; index < sortedIndexEntries.size()
-                && matchCount < MAX_SEARCH_ROWS; ++index) {
+        final IndexEntryView view = entryView();
+        final int insertionPointIndex = findInsertionPointIndex(searchToken, interrupted, view);
+        if (session != null) {
+            session.start(searchTokens, insertionPointIndex);
+        }
+        // RowKey.bits of the rows seen so far.
+        final LongHashSet rowsAlreadySeen = session != null ? session.rowsAlreadySeen : new LongHashSet();
+        rowsAlreadySeen.clear();
+        final RowCursor cursor = rowCursor();
+        if (pool != null) {
+            matchCount = parallelMatch(pool, searchToken, insertionPointIndex, view, cursor, searchTokens, pattern,
+                                       rowsAlreadySeen, session, matches, interrupted);
+        } else entries: for (int index = insertionPointIndex; matchCount < MAX_SEARCH_ROWS
+                && !matches.isComplete(); ++index) {
             if (interrupted != null && interrupted.get()) {
-                return result;
+                break;
             }
-            final IndexEntry indexEntry = sortedIndexEntries.get(index);
-            if (!indexEntry.normalizedToken.startsWith(searchToken) &&
-                !NormalizeComparator.withoutDash(indexEntry.normalizedToken).startsWith(searchToken)) {
+            if (index >= sortedIndexEntries.size() ||
+                !view.moveTo(index).normalizedTokenStartsWith(searchToken)) {
+                if (session != null) {
+                    session.scanned(index);
+                }
                 break;
             }
 
-            // System.out.println("Searching indexEntry: " + indexEntry.token);
+            // System.out.println("Searching indexEntry: " + view.normalizedToken());
 
             // Extra +1 to skip token row.
-            for (int rowIndex = indexEntry.startRow + 1; rowIndex < indexEntry.startRow + 1
-                    + indexEntry.numRows
-                    && rowIndex < rows.size(); ++rowIndex) {
+            final int startRow = view.startRow();
+            cursor.reset(startRow + 1, startRow + 1 + view.numRows());
+            while (cursor.next()) {
                 if (interrupted != null && interrupted.get()) {
-                    return result;
+                    break entries;
+                }
+                // Rows already seen are skipped without reading them.
+                final long rowKey = RowKey.bits(cursor.type(), cursor.referenceIndex());
+                if (!rowsAlreadySeen.add(rowKey)) {
+                    continue;
                 }
-                final RowBase row = rows.get(rowIndex);
-                final RowBase.RowKey rowKey = row.getRowKey();
-                if (rowsAlreadySeen.contains(rowKey)) {
+                if (session != null && session.isKnownNoMatch(rowKey, index)) {
                     continue;
                 }
-                rowsAlreadySeen.add(rowKey);
+                final RowBase row = cursor.get();
                 final RowMatchType matchType = row.matches(searchTokens, pattern, normalizer(),
                                                swapPairEntries);
                 if (matchType != RowMatchType.NO_MATCH) {
-                    matches.get(matchType).add(row);
+                    matches.add(matchType, row);
                     ++matchCount;
+                    if (session != null) {
+                        session.addSurvivor(rowKey);
+                    }
+                } else if (session != null) {
+                    session.addNoMatch(rowKey);
                 }
             }
         }
         // } // searchTokens
+        if (session != null) {
+            // Otherwise the search stopped before the end of its candidates.
+            session.complete = (interrupted == null || !interrupted.get())
+                               && matchCount < MAX_SEARCH_ROWS && !matches.isComplete();
+        }
 
-        // Sort them into a reasonable order.
-        final RowBase.LengthComparator lengthComparator = new RowBase.LengthComparator(
-            swapPairEntries);
-        for (final Collection<RowBase> rows : matches.values()) {
-            final List<RowBase> ordered = new ArrayList<>(rows);
-            ordered.sort(lengthComparator);
-            result.addAll(ordered);
+        if (interrupted != null && interrupted.get()) {
+            return result;
         }
 
+        // Sort them into a reasonable order.
+        matches.addTo(result);
+
         System.out.println("searchDuration: " + (System.currentTimeMillis() - startMills));
         return result;
     }
 
+    private static Pattern searchPattern(final List<String> normalizedSearchTokens) {
+        String searchTokensRegex = normalizedSearchTokens.stream()
+            .map(Pattern::quote)
+            .collect(Collectors.joining("[\\s]*"));
+        return Pattern.compile(searchTokensRegex);
+    }
+
+    private void addTitleMatch(final String searchText, final Pattern pattern,
+                               final SearchResults matches, final AtomicBoolean interrupted) {
+        final int exactMatchIndex = findInsertionPointIndex(searchText, interrupted);
+        if (exactMatchIndex != -1) {
+            final IndexEntry exactMatch = sortedIndexEntries.get(exactMatchIndex);
+            if (pattern.matcher(exactMatch.token).find()) {
+                matches.add(RowMatchType.TITLE_MATCH, rows.get(exactMatch.startRow));
+            }
+        }
+    }
+
+    /**
+     * Does the same as the sequential matching loop in multiWordSearch,
+     * but runs RowBase.matches on the pool.
+     * Candidates are collected in batches of whole index entries, in search
+     * order and de-duplicated, and results are merged in the same order
+     * so that the outcome does not depend on thread scheduling.
+     * @return the number of rows matched.
+     */
+    private int parallelMatch(final ForkJoinPool pool, final String searchToken, int index,
+                                  final IndexEntryView view, final RowCursor cursor,
+                                  final List<String> searchTokens,
+                                  final Pattern pattern, final LongHashSet rowsAlreadySeen,
+                                  final SearchSession session,
+                                  final SearchResults matches,
+                                  final AtomicBoolean interrupted) {
+        final List<RowBase> batchRows = new ArrayList<>();
+        final List<RowBase.Matcher> batchMatchers = new ArrayList<>();
+        final List<Integer> entryEnds = new ArrayList<>();
+        int matchCount = 0;
+        boolean lastBatch = false;
+        while (!lastBatch && matchCount < MAX_SEARCH_ROWS && !matches.isComplete()) {
+            batchRows.clear();
+            batchMatchers.clear();
+            entryEnds.clear();
+            while (batchRows.size() < PARALLEL_BATCH_ROWS) {
+                if (interrupted != null && interrupted.get()) {
+                    return matchCount;
+                }
+                if (index >= sortedIndexEntries.size() ||
+                    !view.moveTo(index).normalizedTokenStartsWith(searchToken)) {
+                    if (session != null) {
+                        session.scanned(index);
+                    }
+                    lastBatch = true;
+                    break;
+                }
+                // Extra +1 to skip token row.
+                final int startRow = view.startRow();
+                cursor.reset(startRow + 1, startRow + 1 + view.numRows());
+                while (cursor.next()) {
+                    final long rowKey = RowKey.bits(cursor.type(), cursor.referenceIndex());
+                    if (rowsAlreadySeen.add(rowKey) &&
+                        (session == null || !session.isKnownNoMatch(rowKey, index))) {
+                        final RowBase row = cursor.get();
+                        batchRows.add(row);
+                        // Reads the entries here, so that the matchers never
+                        // touch the dictionary from the pool threads.
+                        batchMatchers.add(row.prepareMatch(swapPairEntries));
+                    }
+                }
+                entryEnds.add(batchRows.size());
+                ++index;
+            }
+            final RowMatchType[] results = new RowMatchType[batchRows.size()];
+            pool.invoke(new MatchTask(batchMatchers, 0, results.length, results,
+                                      searchTokens, pattern, interrupted));
+            if (interrupted != null && interrupted.get()) {
+                return matchCount;
+            }
+            if (session != null) {
+                for (int row = 0; row < results.length; ++row) {
+                    if (results[row] == RowMatchType.NO_MATCH) {
+                        session.addNoMatch(RowKey.bits(batchRows.get(row)));
+                    }
+                }
+            }
+            // The sequential search stops after the index entry
+            // that reaches MAX_SEARCH_ROWS, so do the same.
+            int row = 0;
+            for (int entry = 0; entry < entryEnds.size(); ++entry) {
+                if (matchCount >= MAX_SEARCH_ROWS || matches.isComplete()) {
+                    break;
+                }
+                for (; row < entryEnds.get(entry); ++row) {
+                    if (results[row] != RowMatchType.NO_MATCH) {
+                        matches.add(results[row], batchRows.get(row));
+                        ++matchCount;
+                        if (session != null) {
+                            session.addSurvivor(RowKey.bits(batchRows.get(row)));
+                        }
+                    }
+                }
+            }
+        }
+        return matchCount;
+    }
+
+    /**
+     * The matches of a search by RowMatchType, each sorted with
+     * RowBase.LengthComparator in the end.
+     * With a limit only the rows that can be among the first maxResults
+     * are kept, see multiWordSearch.
+     */
+    private final class SearchResults {
+        private final int maxResults;
+        // Without a limit.
+        private final Map<RowMatchType, List<RowBase>> all;
+        // With a limit.
+        private final Map<RowMatchType, TopRows> top;
+
+        SearchResults(final int maxResults) {
+            this.maxResults = maxResults;
+            all = maxResults == Integer.MAX_VALUE ? new EnumMap<>(RowMatchType.class) : null;
+            top = all == null ? new EnumMap<>(RowMatchType.class) : null;
+            for (final RowMatchType rowMatchType : RowMatchType.values()) {
+                if (rowMatchType == RowMatchType.NO_MATCH) {
+                    continue;
+                }
+                if (all != null) {
+                    all.put(rowMatchType, new ArrayList<>());
+                } else {
+                    top.put(rowMatchType, new TopRows(maxResults));
+                }
+            }
+        }
+
+        void add(final RowMatchType matchType, final RowBase row) {
+            if (all != null) {
+                all.get(matchType).add(row);
+            } else if (countBetterThan(matchType) < maxResults) {
+                top.get(matchType).offer(row, row.getSideLength(swapPairEntries));
+            }
+        }
+
+        private int countBetterThan(final RowMatchType matchType) {
+            int count = 0;
+            for (final Map.Entry<RowMatchType, TopRows> bucket : top.entrySet()) {
+                if (bucket.getKey().compareTo(matchType) >= 0) {
+                    break;
+                }
+                count += bucket.getValue().size();
+            }
+            return count;
+        }
+
+        /**
+         * @return whether no further match can be among the first
+         * maxResults, unless it is shorter than one of them.
+         */
+        boolean isComplete() {
+            return top != null && countBetterThan(RowMatchType.BAG_OF_WORDS_MATCH) >= maxResults;
+        }
+
+        void addTo(final List<RowBase> result) {
+            if (all != null) {
+                for (final List<RowBase> rows : all.values()) {
+                    // The same order as a stable sort with RowBase.LengthComparator,
+                    // but each length is only computed once: sorts length
+                    // and position, packed into one long.
+                    final long[] keys = new long[rows.size()];
+                    for (int i = 0; i < keys.length; ++i) {
+                        keys[i] = (long)rows.get(i).getSideLength(swapPairEntries) << 32 | i;
+                    }
+                    Arrays.sort(keys);
+                    for (final long key : keys) {
+                        result.add(rows.get((int)key));
+                    }
+                }
+                return;
+            }
+            final int start = result.size();
+            for (final TopRows rows : top.values()) {
+                rows.addSortedTo(result);
+            }
+            if (result.size() - start > maxResults) {
+                result.subList(start + maxResults, result.size()).clear();
+            }
+        }
+    }
+
+    /**
+     * The first capacity rows of those offered, when sorted by length
+     * and then in the order offered, i.e. the start of a stable sort
+     * with RowBase.LengthComparator.
+     * A heap with the last of the kept rows on top, so each row costs
+     * O(log capacity) and the length is only computed once.
+     */
+    static final class TopRows {
+        private final int capacity;
+        // Grown up to capacity, most searches find only few rows.
+        private RowBase[] rows = new RowBase[0];
+        private int[] lengths = new int[0];
+        // Position among the offered rows.
+        private int[] order = new int[0];
+        private int size;
+        private int offered;
+
+        TopRows(final int capacity) {
+            this.capacity = capacity;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void offer(final RowBase row, final int length) {
+            final int position = offered++;
+            if (size < capacity) {
+                if (size == rows.length) {
+                    final int newLength = (int)Math.min(capacity, Math.max(16, 2L * size));
+                    rows = Arrays.copyOf(rows, newLength);
+                    lengths = Arrays.copyOf(lengths, newLength);
+                    order = Arrays.copyOf(order, newLength);
+                }
+                set(size, row, length, position);
+                siftUp(size++);
+            } else if (size > 0 && (length < lengths[0] || length == lengths[0] && position < order[0])) {
+                // Only a later row of the same length would come after the top.
+                set(0, row, length, position);
+                siftDown(0, size);
+            }
+        }
+
+        /**
+         * Adds the rows in sorted order, emptying the heap.
+         */
+        void addSortedTo(final List<RowBase> result) {
+            final RowBase[] sorted = new RowBase[size];
+            for (int n = size; n > 0; --n) {
+                sorted[n - 1] = rows[0];
+                swap(0, n - 1);
+                siftDown(0, n - 1);
+            }
+            size = 0;
+            result.addAll(Arrays.asList(sorted));
+        }
+
+        private void set(final int i, final RowBase row, final int length, final int position) {
+            rows[i] = row;
+            lengths[i] = length;
+            order[i] = position;
+        }
+
+        // Whether row i sorts after row j.
+        private boolean after(final int i, final int j) {
+            return lengths[i] > lengths[j] || lengths[i] == lengths[j] && order[i] > order[j];
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                final int parent = (i - 1) / 2;
+                if (!after(i, parent)) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i, final int end) {
+            while (true) {
+                int last = i;
+                final int left = 2 * i + 1;
+                if (left < end && after(left, last)) {
+                    last = left;
+                }
+                if (left + 1 < end && after(left + 1, last)) {
+                    last = left + 1;
+                }
+                if (last == i) {
+                    return;
+                }
+                swap(i, last);
+                i = last;
+            }
+        }
+
+        private void swap(final int i, final int j) {
+            final RowBase row = rows[i];
+            rows[i] = rows[j];
+            rows[j] = row;
+            final int length = lengths[i];
+            lengths[i] = lengths[j];
+            lengths[j] = length;
+            final int position = order[i];
+            order[i] = order[j];
+            order[j] = position;
+        }
+    }
+
+    private final class MatchTask extends RecursiveAction {
+        private final List<RowBase.Matcher> matchers;
+        private final int start;
+        private final int end;
+        private final RowMatchType[] results;
+        private final List<String> searchTokens;
+        private final Pattern pattern;
+        private final AtomicBoolean interrupted;
+
+        MatchTask(final List<RowBase.Matcher> matchers, final int start, final int end,
+                  final RowMatchType[] results, final List<String> searchTokens,
+                  final Pattern pattern, final AtomicBoolean interrupted) {
+            this.matchers = matchers;
+            this.start = start;
+            this.end = end;
+            this.results = results;
+            this.searchTokens = searchTokens;
+            this.pattern = pattern;
+            this.interrupted = interrupted;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > PARALLEL_CHUNK_ROWS) {
+                final int mid = (start + end) >>> 1;
+                invokeAll(new MatchTask(matchers, start, mid, results, searchTokens, pattern, interrupted),
+                          new MatchTask(matchers, mid, end, results, searchTokens, pattern, interrupted));
+                return;
+            }
+            final Transliterator normalizer = normalizers.borrow();
+            try {
+                for (int i = start; i < end; ++i) {
+                    if (interrupted != null && interrupted.get()) {
+                        return;
+                    }
+                    results[i] = matchers.get(i).matches(searchTokens, pattern, normalizer);
+                }
+            } finally {
+                normalizers.release(normalizer);
+            }
+        }
+    }
+
     private String normalizeToken(final String searchToken) {
         if (TransliteratorManager.init(null, null)) {
             final Transliterator normalizer = normalizer();
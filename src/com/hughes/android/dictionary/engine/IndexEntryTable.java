@@ -0,0 +1,127 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import com.hughes.util.DataInputBuffer;
+import com.hughes.util.StringUtil;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Uncompressed copy of the fields of the index entries that searching
+ * needs, so they can be read straight from the mapped file
+ * without decompressing blocks or creating IndexEntry objects.
+ */
+final class IndexEntryTable {
+
+    private final DataRegion data;
+    private final int size;
+    private final int entriesStart;
+
+    private IndexEntryTable(final DataRegion data, final int size) {
+        this.data = data;
+        this.size = size;
+        this.entriesStart = (size + 1) * 4;
+    }
+
+    static IndexEntryTable read(final DataInputBuffer raf, final int size) throws IOException {
+        final int len = raf.readInt();
+        return new IndexEntryTable(new DataRegion(raf, len), size);
+    }
+
+    /**
+     * Writes one entry, see TableWriter for the table around them.
+     */
+    static void writeEntry(final DataOutput out, final int startRow, final int numRows,
+                           final int numHtmlEntries, final String normalizedToken) throws IOException {
+        StringUtil.writeVarInt(out, startRow);
+        StringUtil.writeVarInt(out, numRows);
+        StringUtil.writeVarInt(out, numHtmlEntries);
+        // Same encoding as writeUTF, just without the length.
+        for (int i = 0; i < normalizedToken.length(); ++i) {
+            final char c = normalizedToken.charAt(i);
+            if (c >= 1 && c < 0x80) {
+                out.write(c);
+            } else if (c < 0x800) {
+                out.write(0xc0 | (c >> 6));
+                out.write(0x80 | (c & 0x3f));
+            } else {
+                out.write(0xe0 | (c >> 12));
+                out.write(0x80 | ((c >> 6) & 0x3f));
+                out.write(0x80 | (c & 0x3f));
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Loads entry i into view, decoding the normalized token into its
+     * reusable buffer.
+     */
+    void read(final int i, final IndexEntryView view) {
+        // Past the end the offsets would be read from the entry data.
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Entry " + i + ", size " + size);
+        }
+        try {
+            final DataInputBuffer in = data.borrow(i * 4);
+            final DataInputBuffer entry;
+            try {
+                final int start = in.readInt();
+                final int end = in.readInt();
+                in.rewind();
+                in.skipBytes(entriesStart + start);
+                entry = in.slice(end - start);
+            } finally {
+                data.release(in);
+            }
+            view.startRow = StringUtil.readVarInt(entry);
+            view.numRows = StringUtil.readVarInt(entry);
+            view.numHtmlEntries = StringUtil.readVarInt(entry);
+            final int tokenLen = entry.limit() - varIntSize(view.startRow)
+                                 - varIntSize(view.numRows) - varIntSize(view.numHtmlEntries);
+            final char[] chars = view.tokenBuffer(tokenLen);
+            int len = 0;
+            for (int n = 0; n < tokenLen; ++n) {
+                final int c = entry.readUnsignedByte();
+                if (c < 0x80) {
+                    chars[len++] = (char)c;
+                } else if ((c >> 5) == 6) {
+                    chars[len++] = (char)(((c & 0x1f) << 6) | (entry.readUnsignedByte() & 0x3f));
+                    n += 1;
+                } else {
+                    chars[len++] = (char)(((c & 0x0f) << 12) | ((entry.readUnsignedByte() & 0x3f) << 6)
+                                          | (entry.readUnsignedByte() & 0x3f));
+                    n += 2;
+                }
+            }
+            view.tokenLength = len;
+        } catch (IOException e) {
+            throw new RuntimeException("Dictionary index entry table corrupted", e);
+        }
+    }
+
+    static int varIntSize(final int v) {
+        if (v >= 0 && v < 0x80) return 1;
+        if (v >= 0 && v < 0x4000) return 2;
+        if (v >= 0 && v < 0x200000) return 3;
+        if (v >= 0 && v < 0x10000000) return 4;
+        return 5;
+    }
+}
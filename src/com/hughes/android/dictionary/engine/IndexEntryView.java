@@ -0,0 +1,140 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+/**
+ * Reusable, flyweight accessor for the search-relevant fields of
+ * Index.sortedIndexEntries.
+ * If the dictionary has an index entry table (v8 only) it is read directly
+ * from that and no IndexEntry objects are created, otherwise it falls back
+ * to sortedIndexEntries, which creates one for each entry not in its cache.
+ * Not thread-safe, each search should use its own view.
+ */
+public final class IndexEntryView {
+
+    private final Index index;
+    private final IndexEntryTable table;
+    private int entry = -1;
+
+    int startRow;
+    int numRows;
+    int numHtmlEntries;
+
+    // Normalized token, either as String (no table) or
+    // decoded into the reusable chars buffer.
+    private String tokenString;
+    private char[] chars = new char[32];
+    int tokenLength;
+    private final CharSequence tokenChars = new CharSequence() {
+        @Override
+        public int length() {
+            return tokenLength;
+        }
+
+        @Override
+        public char charAt(int i) {
+            return chars[i];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, 0, tokenLength);
+        }
+    };
+
+    IndexEntryView(final Index index, final IndexEntryTable table) {
+        this.index = index;
+        this.table = table;
+    }
+
+    /**
+     * Positions the view on sortedIndexEntries.get(i).
+     */
+    public IndexEntryView moveTo(final int i) {
+        if (i == entry) {
+            return this;
+        }
+        if (table != null) {
+            table.read(i, this);
+            tokenString = null;
+        } else {
+            final Index.IndexEntry indexEntry = index.sortedIndexEntries.get(i);
+            startRow = indexEntry.startRow;
+            numRows = indexEntry.numRows;
+            numHtmlEntries = indexEntry.htmlEntries.size();
+            tokenString = indexEntry.normalizedToken();
+        }
+        entry = i;
+        return this;
+    }
+
+    public int entry() {
+        return entry;
+    }
+
+    public int startRow() {
+        return startRow;
+    }
+
+    /**
+     * @return number of rows, not counting the token row.
+     */
+    public int numRows() {
+        return numRows;
+    }
+
+    public int numHtmlEntries() {
+        return numHtmlEntries;
+    }
+
+    /**
+     * @return the normalized token, only valid until the next moveTo.
+     */
+    public CharSequence normalizedToken() {
+        return tokenString != null ? tokenString : tokenChars;
+    }
+
+    /**
+     * @return the normalized token as a (possibly newly allocated) String.
+     */
+    public String normalizedTokenString() {
+        return tokenString != null ? tokenString : tokenChars.toString();
+    }
+
+    /**
+     * Same as normalizedToken.startsWith(prefix) ||
+     * withoutDash(normalizedToken).startsWith(prefix), but without allocating.
+     */
+    boolean normalizedTokenStartsWith(final String prefix) {
+        final CharSequence token = normalizedToken();
+        boolean startsWith = token.length() >= prefix.length();
+        for (int i = 0; startsWith && i < prefix.length(); ++i) {
+            startsWith = token.charAt(i) == prefix.charAt(i);
+        }
+        return startsWith || NormalizeComparator.withoutDashStartsWith(token, prefix);
+    }
+
+    char[] tokenBuffer(final int maxLen) {
+        if (chars.length < maxLen) {
+            chars = new char[Math.max(maxLen, 2 * chars.length)];
+        }
+        return chars;
+    }
+}
@@ -0,0 +1,190 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * An Inflater plus input and output buffers, reused for all
+ * decompression of dictionary data.
+ * Creating an Inflater allocates native zlib state, which used to happen
+ * for every block read.
+ * Usage: borrow one with {@link #get}, fill the input buffer with
+ * {@link #read}, call one of the decompression methods and finally
+ * {@link #recycle}.
+ */
+final class InflaterPool {
+
+    // Buffers that grew beyond this are dropped after use, for the
+    // rare huge HTML entry.
+    private static final int MAX_RETAINED_BUFFER = 256 * 1024;
+
+    private static final ObjectPool<InflaterPool> pool = new ObjectPool<InflaterPool>() {
+        @Override
+        protected InflaterPool create() {
+            return new InflaterPool();
+        }
+
+        @Override
+        protected void discard(final InflaterPool inflater) {
+            inflater.inflater.end();
+        }
+    };
+
+    // nowrap: both list_of blocks and (after the header) gzip are raw deflate.
+    private final Inflater inflater = new Inflater(true);
+    private final CRC32 crc = new CRC32();
+    private byte[] input = new byte[4096];
+    private byte[] output = new byte[16384];
+
+    private InflaterPool() {
+    }
+
+    /**
+     * @return an InflaterPool for use by the calling thread until recycle().
+     */
+    static InflaterPool get() {
+        return pool.borrow();
+    }
+
+    void recycle() {
+        pool.release(this);
+    }
+
+    /**
+     * Reads len compressed bytes into the input buffer.
+     */
+    void read(final DataInput in, final int len) throws IOException {
+        // One extra dummy byte, as Inflater documents for nowrap.
+        if (input.length < len + 1) {
+            input = new byte[Math.max(len + 1, 2 * input.length)];
+        }
+        in.readFully(input, 0, len);
+        input[len] = 0;
+    }
+
+    /**
+     * Inflates the len raw deflate bytes in the input buffer.
+     * @param dictionary preset dictionary of the list, may be null.
+     * @return a new array of exactly the inflated size.
+     */
+    byte[] inflate(final int len, final byte[] dictionary) throws DataFormatException {
+        try {
+            final int n = inflate(0, len, -1, dictionary);
+            return Arrays.copyOf(output, n);
+        } finally {
+            shrinkBuffers();
+        }
+    }
+
+    /**
+     * Decompresses the len gzip bytes in the input buffer and decodes
+     * the first numBytes bytes as UTF-8.
+     */
+    String gunzipString(final int len, final int numBytes) throws IOException {
+        try {
+            final int start = gzipHeaderSize(len);
+            final int n = inflate(start, len - start, numBytes, null);
+            final int trailer = start + inflater.getTotalIn();
+            if (n < numBytes || trailer + 8 > len) {
+                throw new IOException("gzip data truncated");
+            }
+            crc.reset();
+            crc.update(output, 0, n);
+            if ((int)crc.getValue() != readIntLE(trailer) || n != readIntLE(trailer + 4)) {
+                throw new IOException("gzip checksum mismatch");
+            }
+            return new String(output, 0, numBytes, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IOException("gzip data corrupted", e);
+        } finally {
+            shrinkBuffers();
+        }
+    }
+
+    // Inflates len bytes of input at offset into output, returns the number
+    // of inflated bytes. expected is the inflated size if known, else -1.
+    private int inflate(final int offset, final int len, final int expected,
+                        final byte[] dictionary) throws DataFormatException {
+        inflater.reset();
+        if (dictionary != null) {
+            // Raw deflate has no dictionary id, so it is set up front.
+            inflater.setDictionary(dictionary);
+        }
+        inflater.setInput(input, offset, len + 1);
+        if (expected >= 0 && output.length < expected) {
+            output = new byte[expected];
+        }
+        int n = 0;
+        while (!inflater.finished()) {
+            if (n == output.length) {
+                output = Arrays.copyOf(output, 2 * output.length);
+            }
+            final int count = inflater.inflate(output, n, output.length - n);
+            if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                break;
+            }
+            n += count;
+        }
+        return n;
+    }
+
+    private void shrinkBuffers() {
+        if (input.length > MAX_RETAINED_BUFFER) {
+            input = new byte[4096];
+        }
+        if (output.length > MAX_RETAINED_BUFFER) {
+            output = new byte[16384];
+        }
+    }
+
+    private int readIntLE(final int pos) {
+        return (input[pos] & 0xff) | (input[pos + 1] & 0xff) << 8
+               | (input[pos + 2] & 0xff) << 16 | (input[pos + 3] & 0xff) << 24;
+    }
+
+    // See RFC 1952.
+    private int gzipHeaderSize(final int len) throws IOException {
+        if (len < 18 || input[0] != (byte)0x1f || input[1] != (byte)0x8b || input[2] != 8) {
+            throw new IOException("Not gzip data");
+        }
+        final int flags = input[3];
+        int pos = 10;
+        if ((flags & 4) != 0) {
+            pos += 2 + ((input[pos] & 0xff) | (input[pos + 1] & 0xff) << 8);
+        }
+        if ((flags & 8) != 0) {
+            while (pos < len && input[pos++] != 0) {
+            }
+        }
+        if ((flags & 16) != 0) {
+            while (pos < len && input[pos++] != 0) {
+            }
+        }
+        if ((flags & 2) != 0) {
+            pos += 2;
+        }
+        if (pos >= len) {
+            throw new IOException("gzip header truncated");
+        }
+        return pos;
+    }
+}
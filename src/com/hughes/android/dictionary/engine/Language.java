@@ -15,7 +15,6 @@
 package com.hughes.android.dictionary.engine;
 
 import com.hughes.android.dictionary.CollatorWrapper;
-import com.hughes.android.dictionary.DictionaryApplication;
 
 import java.util.Comparator;
 import java.util.HashMap;
@@ -61,9 +60,49 @@ public class Language {
         return isoCode;
     }
 
-    public synchronized Comparator<Object> getCollator() {
-        // TODO: consider if this should be cached - but must be thread-safe
-        return CollatorWrapper.getInstanceStrengthIdentical(locale);
+    // Collators are not thread-safe, so each thread gets its own clone
+    // of one prototype instead of creating a new one on every call.
+    private Comparator<Object> collatorPrototype;
+    private final ThreadLocal<Comparator<Object>> threadCollator = new ThreadLocal<Comparator<Object>>() {
+        @Override
+        protected Comparator<Object> initialValue() {
+            return CollatorWrapper.copy(getCollatorPrototype());
+        }
+    };
+    // Searches borrow their collator instead, a thread per request
+    // (e.g. virtual threads in the server) would clone one every time.
+    private final ObjectPool<Comparator<Object>> collators = new ObjectPool<Comparator<Object>>() {
+        @Override
+        protected Comparator<Object> create() {
+            return CollatorWrapper.copy(getCollatorPrototype());
+        }
+    };
+
+    private synchronized Comparator<Object> getCollatorPrototype() {
+        if (collatorPrototype == null) {
+            collatorPrototype = CollatorWrapper.getInstanceStrengthIdentical(locale);
+        }
+        return collatorPrototype;
+    }
+
+    /**
+     * @return a collator for this language, cached per thread.
+     * It must not be shared with other threads.
+     */
+    public Comparator<Object> getCollator() {
+        return threadCollator.get();
+    }
+
+    /**
+     * @return a collator for use by the calling thread until passed
+     * to releaseCollator.
+     */
+    Comparator<Object> borrowCollator() {
+        return collators.borrow();
+    }
+
+    void releaseCollator(final Comparator<Object> collator) {
+        collators.release(collator);
     }
 
     public String getDefaultNormalizerRules() {
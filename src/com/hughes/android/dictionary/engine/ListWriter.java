@@ -0,0 +1,229 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import com.hughes.util.StringUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Streaming writer for list_of (see dictionary-format.txt), the
+ * counterpart of BlockList.
+ * Elements are written one at a time, each finished block goes to
+ * a SpillFile, and only the block offsets stay in memory until the
+ * list is copied into the dictionary with its TOC in front.
+ * Blocks are compressed by a BlockCompressor, possibly several at once,
+ * but always written in order.
+ * With a PresetDictionary the blocks are first spilled uncompressed
+ * while sampling them, and compressed once the dictionary is trained.
+ */
+final class ListWriter implements Closeable {
+
+    private final int blockSize;
+    // Null for an uncompressed list.
+    private final BlockCompressor compressor;
+    private final File spillDir;
+    private final String name;
+    private SpillFile spill;
+    // Set while uncompressed blocks are collected for training.
+    private PresetDictionary sampler;
+    private byte[] presetDictionary;
+    private final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream();
+    private final DataOutputStream block = new DataOutputStream(blockBytes);
+    // Blocks being compressed, oldest first.
+    private final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+    private int size;
+    // Start of each block in the spill file.
+    private int[] blockOffsets = new int[64];
+    private int numBlocks;
+
+    /**
+     * @param compressor compresses the blocks, null for an uncompressed list.
+     */
+    ListWriter(final int blockSize, final BlockCompressor compressor, final File spillDir,
+               final String name) throws IOException {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Invalid block size " + blockSize);
+        }
+        this.blockSize = blockSize;
+        this.compressor = compressor;
+        this.spillDir = spillDir;
+        this.name = name;
+        spill = new SpillFile(spillDir, name);
+        if (compressor != null && compressor.codec().presetDictionary) {
+            sampler = new PresetDictionary();
+        }
+    }
+
+    /**
+     * Starts the next element, which is then written to the returned output.
+     * Its index is size() - 1.
+     */
+    DataOutput next() throws IOException {
+        if (size > 0 && size % blockSize == 0) {
+            finishBlock();
+        }
+        ++size;
+        return block;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void finishBlock() throws IOException {
+        block.flush();
+        if (compressor == null || sampler != null) {
+            if (sampler != null) {
+                sampler.sample(blockBytes);
+            }
+            addBlockOffset();
+            blockBytes.writeTo(spill.out());
+        } else {
+            submit(blockBytes.toByteArray());
+        }
+        blockBytes.reset();
+    }
+
+    private void submit(final byte[] bytes) throws IOException {
+        pending.add(compressor.submit(bytes, presetDictionary));
+        while (pending.size() > compressor.maxPending()) {
+            writePending();
+        }
+    }
+
+    // Trains the preset dictionary, then compresses the spilled blocks.
+    private void compressSpilled() throws IOException {
+        presetDictionary = sampler.train();
+        sampler = null;
+        final SpillFile raw = spill;
+        final int[] rawOffsets = blockOffsets;
+        final int numRawBlocks = numBlocks;
+        spill = new SpillFile(spillDir, name);
+        blockOffsets = new int[Math.max(64, numRawBlocks)];
+        numBlocks = 0;
+        try (DataInputStream in = new DataInputStream(raw.openInput())) {
+            for (int i = 0; i < numRawBlocks; ++i) {
+                final int end = i + 1 < numRawBlocks ? rawOffsets[i + 1] : raw.intLength();
+                final byte[] bytes = new byte[end - rawOffsets[i]];
+                in.readFully(bytes);
+                submit(bytes);
+            }
+        } finally {
+            raw.close();
+        }
+    }
+
+    private void addBlockOffset() throws IOException {
+        if (numBlocks == blockOffsets.length) {
+            blockOffsets = Arrays.copyOf(blockOffsets, 2 * numBlocks);
+        }
+        blockOffsets[numBlocks++] = spill.intLength();
+    }
+
+    private void writePending() throws IOException {
+        final byte[] compressed;
+        try {
+            compressed = pending.remove().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (ExecutionException e) {
+            throw new IOException("Block compression failed", e.getCause());
+        }
+        addBlockOffset();
+        spill.out().write(compressed);
+    }
+
+    private void finish() throws IOException {
+        if ((long)(numBlocks + pending.size()) * blockSize < size) {
+            finishBlock();
+        }
+        if (sampler != null) {
+            compressSpilled();
+        }
+        while (!pending.isEmpty()) {
+            writePending();
+        }
+    }
+
+    private int tocSize() {
+        return 4 * (numBlocks + 1);
+    }
+
+    /**
+     * @return the size of the list in the dictionary, no more elements
+     * can be added after calling this.
+     */
+    long length() throws IOException {
+        finish();
+        final ByteArrayOutputStream header = new ByteArrayOutputStream();
+        writeHeader(new DataOutputStream(header));
+        return header.size() + (long)tocSize() + spill.length();
+    }
+
+    private void writeHeader(final DataOutput out) throws IOException {
+        StringUtil.writeVarInt(out, size);
+        StringUtil.writeVarInt(out, blockSize);
+        if (compressor == null) {
+            StringUtil.writeVarInt(out, 0);
+        } else if (presetDictionary == null) {
+            StringUtil.writeVarInt(out, compressor.codec().flag);
+        } else {
+            StringUtil.writeVarInt(out, compressor.codec().flag | BlockCodec.PRESET_DICTIONARY_FLAG);
+            StringUtil.writeVarInt(out, presetDictionary.length);
+            out.write(presetDictionary);
+        }
+    }
+
+    void writeTo(final DataOutput out) throws IOException {
+        finish();
+        final ByteArrayOutputStream toc = new ByteArrayOutputStream(16 + tocSize()
+                + (presetDictionary != null ? presetDictionary.length : 0));
+        final DataOutputStream tocOut = new DataOutputStream(toc);
+        writeHeader(tocOut);
+        // Offsets are relative to the start of the TOC.
+        final int tocSize = tocSize();
+        if (tocSize + spill.length() > Integer.MAX_VALUE) {
+            throw new IOException("List too large for the dictionary format");
+        }
+        for (int i = 0; i < numBlocks; ++i) {
+            tocOut.writeInt(tocSize + blockOffsets[i]);
+        }
+        tocOut.writeInt(tocSize + spill.intLength());
+        tocOut.flush();
+        out.write(toc.toByteArray());
+        spill.copyTo(out);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (final Future<byte[]> block : pending) {
+            block.cancel(false);
+        }
+        spill.close();
+    }
+}
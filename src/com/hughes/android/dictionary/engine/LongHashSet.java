@@ -0,0 +1,116 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import java.util.Arrays;
+
+/**
+ * Set of longs with open addressing, without boxing or an object per
+ * element. clear() keeps the table, so a set reused for many searches
+ * stops allocating once it has reached the size they need.
+ * Not thread-safe.
+ */
+final class LongHashSet {
+
+    // Marks free slots, the key 0 itself is tracked separately.
+    private static final long FREE = 0;
+
+    private long[] table;
+    private int size;
+    private boolean containsFree;
+
+    LongHashSet() {
+        table = new long[64];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(final long key) {
+        if (key == FREE) {
+            return containsFree;
+        }
+        final int mask = table.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            final long k = table[slot];
+            if (k == key) {
+                return true;
+            }
+            if (k == FREE) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return true if the key was not in the set before.
+     */
+    boolean add(final long key) {
+        if (key == FREE) {
+            if (containsFree) {
+                return false;
+            }
+            containsFree = true;
+            ++size;
+            return true;
+        }
+        if (insert(table, key)) {
+            // At most half full, so probe sequences stay short.
+            if (++size > table.length / 2) {
+                rehash(2 * table.length);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(table, FREE);
+            size = 0;
+            containsFree = false;
+        }
+    }
+
+    private static boolean insert(final long[] table, final long key) {
+        final int mask = table.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            final long k = table[slot];
+            if (k == key) {
+                return false;
+            }
+            if (k == FREE) {
+                table[slot] = key;
+                return true;
+            }
+        }
+    }
+
+    private void rehash(final int capacity) {
+        final long[] old = table;
+        table = new long[capacity];
+        for (final long key : old) {
+            if (key != FREE) {
+                insert(table, key);
+            }
+        }
+    }
+
+    private static int hash(final long key) {
+        final long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+}
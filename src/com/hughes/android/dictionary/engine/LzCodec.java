@@ -0,0 +1,221 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+
+/**
+ * Byte-oriented LZ77 codec for list_of blocks (see "LZ blocks" in
+ * dictionary-format.txt), similar to the LZ4 block format.
+ * There is no entropy coding, so decoding is just copying bytes,
+ * several times faster than inflate, for somewhat larger files.
+ */
+final class LzCodec {
+
+    private static final int MIN_MATCH = 4;
+    private static final int MAX_OFFSET = 0xffff;
+    private static final int HASH_BITS = 12;
+
+    private static final ObjectPool<byte[][]> inputBuffers = new ObjectPool<byte[][]>() {
+        @Override
+        protected byte[][] create() {
+            return new byte[][] { new byte[4096] };
+        }
+    };
+
+    private LzCodec() {
+    }
+
+    /**
+     * @return the compressed block, starting with the Int decoded size.
+     */
+    static byte[] compress(final byte[] src) {
+        final int len = src.length;
+        byte[] out = new byte[4 + len + len / 255 + 16];
+        writeInt(out, 0, len);
+        int op = 4;
+        // Position + 1 of the last occurrence of each hashed 4 byte sequence.
+        final int[] table = new int[1 << HASH_BITS];
+        int anchor = 0;
+        int ip = 0;
+        while (ip + MIN_MATCH <= len) {
+            final int h = hash(src, ip);
+            final int ref = table[h] - 1;
+            table[h] = ip + 1;
+            if (ref < 0 || ip - ref > MAX_OFFSET || readInt(src, ref) != readInt(src, ip)) {
+                ++ip;
+                continue;
+            }
+            int matchLen = MIN_MATCH;
+            while (ip + matchLen < len && src[ref + matchLen] == src[ip + matchLen]) {
+                ++matchLen;
+            }
+            if (out.length - op < 16 + ip - anchor + (ip - anchor + matchLen) / 255) {
+                out = Arrays.copyOf(out, 2 * out.length + ip - anchor);
+            }
+            op = writeSequence(src, anchor, ip - anchor, out, op, ip - ref, matchLen);
+            ip += matchLen;
+            anchor = ip;
+        }
+        // Final literals, without a match.
+        if (out.length - op < 16 + len - anchor + (len - anchor) / 255) {
+            out = Arrays.copyOf(out, op + 16 + len - anchor + (len - anchor) / 255);
+        }
+        op = writeSequence(src, anchor, len - anchor, out, op, 0, 0);
+        return Arrays.copyOf(out, op);
+    }
+
+    private static int writeSequence(final byte[] src, final int literalStart, final int literalLen,
+                                     final byte[] out, int op, final int offset, final int matchLen) {
+        final int matchCode = offset == 0 ? 0 : matchLen - MIN_MATCH;
+        out[op++] = (byte)(Math.min(literalLen, 15) << 4 | Math.min(matchCode, 15));
+        op = writeLength(out, op, literalLen);
+        System.arraycopy(src, literalStart, out, op, literalLen);
+        op += literalLen;
+        if (offset != 0) {
+            out[op++] = (byte)offset;
+            out[op++] = (byte)(offset >>> 8);
+            op = writeLength(out, op, matchCode);
+        }
+        return op;
+    }
+
+    private static int writeLength(final byte[] out, int op, final int len) {
+        if (len < 15) {
+            return op;
+        }
+        int rest = len - 15;
+        while (rest >= 255) {
+            out[op++] = (byte)255;
+            rest -= 255;
+        }
+        out[op++] = (byte)rest;
+        return op;
+    }
+
+    /**
+     * Reads and decodes a compressed block of len bytes.
+     * @return a new array of exactly the decoded size.
+     */
+    static byte[] decompress(final DataInput in, final int len) throws IOException, DataFormatException {
+        if (len < 5) {
+            throw new DataFormatException("LZ block too short");
+        }
+        final int size = in.readInt();
+        if (size < 0) {
+            throw new DataFormatException("Invalid LZ block size " + size);
+        }
+        final byte[][] holder = inputBuffers.borrow();
+        try {
+            if (holder[0].length < len - 4) {
+                holder[0] = new byte[len - 4];
+            }
+            final byte[] src = holder[0];
+            in.readFully(src, 0, len - 4);
+            final byte[] dst = new byte[size];
+            decompress(src, len - 4, dst);
+            return dst;
+        } finally {
+            if (holder[0].length > 256 * 1024) {
+                holder[0] = new byte[4096];
+            }
+            inputBuffers.release(holder);
+        }
+    }
+
+    private static void decompress(final byte[] src, final int end, final byte[] dst) throws DataFormatException {
+        int ip = 0;
+        int op = 0;
+        while (true) {
+            if (ip >= end) {
+                throw new DataFormatException("LZ block truncated");
+            }
+            final int token = src[ip++] & 0xff;
+            int literalLen = token >>> 4;
+            if (literalLen == 15) {
+                int b;
+                do {
+                    if (ip >= end) {
+                        throw new DataFormatException("LZ block truncated");
+                    }
+                    b = src[ip++] & 0xff;
+                    literalLen += b;
+                } while (b == 255);
+            }
+            if (literalLen > end - ip || literalLen > dst.length - op) {
+                throw new DataFormatException("LZ literals out of range");
+            }
+            System.arraycopy(src, ip, dst, op, literalLen);
+            ip += literalLen;
+            op += literalLen;
+            if (op == dst.length) {
+                break;
+            }
+            if (ip + 2 > end) {
+                throw new DataFormatException("LZ block truncated");
+            }
+            final int offset = (src[ip] & 0xff) | (src[ip + 1] & 0xff) << 8;
+            ip += 2;
+            if (offset == 0 || offset > op) {
+                throw new DataFormatException("Invalid LZ match offset " + offset);
+            }
+            int matchLen = token & 15;
+            if (matchLen == 15) {
+                int b;
+                do {
+                    if (ip >= end) {
+                        throw new DataFormatException("LZ block truncated");
+                    }
+                    b = src[ip++] & 0xff;
+                    matchLen += b;
+                } while (b == 255);
+            }
+            matchLen += MIN_MATCH;
+            if (matchLen > dst.length - op) {
+                throw new DataFormatException("LZ match out of range");
+            }
+            if (offset >= matchLen) {
+                System.arraycopy(dst, op - offset, dst, op, matchLen);
+                op += matchLen;
+            } else {
+                // Overlapping match, repeats the last offset bytes.
+                for (final int matchEnd = op + matchLen; op < matchEnd; ++op) {
+                    dst[op] = dst[op - offset];
+                }
+            }
+        }
+        if (ip != end) {
+            throw new DataFormatException("Trailing data in LZ block");
+        }
+    }
+
+    private static int hash(final byte[] b, final int pos) {
+        return (readInt(b, pos) * 0x9E3779B1) >>> (32 - HASH_BITS);
+    }
+
+    private static int readInt(final byte[] b, final int pos) {
+        return (b[pos] & 0xff) << 24 | (b[pos + 1] & 0xff) << 16 | (b[pos + 2] & 0xff) << 8 | (b[pos + 3] & 0xff);
+    }
+
+    private static void writeInt(final byte[] b, final int pos, final int v) {
+        b[pos] = (byte)(v >>> 24);
+        b[pos + 1] = (byte)(v >>> 16);
+        b[pos + 2] = (byte)(v >>> 8);
+        b[pos + 3] = (byte)v;
+    }
+}
@@ -36,6 +36,24 @@ public class NormalizeComparator implements Comparator<String> {
         return a.replace("-", "").replace("þ", "th").replace("Þ", "Th");
     }
 
+    // Same as withoutDash(a).startsWith(prefix), without creating new strings.
+    static boolean withoutDashStartsWith(final CharSequence a, final String prefix) {
+        int p = 0;
+        for (int i = 0; i < a.length() && p < prefix.length(); ++i) {
+            final char c = a.charAt(i);
+            if (c == '-') {
+                continue;
+            }
+            if (c == 'þ' || c == 'Þ') {
+                if (prefix.charAt(p++) != (c == 'þ' ? 't' : 'T')) return false;
+                if (p < prefix.length() && prefix.charAt(p++) != 'h') return false;
+                continue;
+            }
+            if (prefix.charAt(p++) != c) return false;
+        }
+        return p == prefix.length();
+    }
+
     // Handles comparison between items containing "-".
     // Also replaces other problematic cases like "thorn".
     public static int compareWithoutDash(final String a, final String b, final Comparator<Object> c, int version) {
@@ -0,0 +1,100 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+/**
+ * LRU cache of normalized (transliterated) entry texts, so that the
+ * same popular entries do not need to be normalized again on every search.
+ * Shared by all indices of a Dictionary, bounded by the number of cached chars.
+ * Thread-safe.
+ */
+public final class NormalizedTextCache {
+
+    // Kinds of cached text, part of the key.
+    static final int PAIR_SIDE_0 = 0;
+    static final int PAIR_SIDE_1 = 1;
+    static final int HTML = 2;
+
+    private static final int DEFAULT_MAX_CHARS = 1 << 20;
+    // Rough per-entry cost of the objects around the text.
+    private static final int ENTRY_OVERHEAD_CHARS = 32;
+
+    private static final class CachedText {
+        // The normalizer rules the text was made with, different
+        // indices can use different rules for the same side.
+        final String rules;
+        final String[] texts;
+        final int chars;
+
+        CachedText(final String rules, final String[] texts) {
+            this.rules = rules;
+            this.texts = texts;
+            int chars = ENTRY_OVERHEAD_CHARS;
+            for (final String text : texts) {
+                chars += text.length();
+            }
+            this.chars = chars;
+        }
+    }
+
+    private final SegmentedLruCache<Long, CachedText> cache =
+        new SegmentedLruCache<>(DEFAULT_MAX_CHARS, cached -> cached.chars);
+
+    private static long key(final int kind, final int entryIndex) {
+        return ((long)kind << 32) | (entryIndex & 0xffffffffL);
+    }
+
+    String[] get(final int kind, final int entryIndex, final String rules) {
+        final CachedText cached = cache.get(key(kind, entryIndex));
+        return cached != null && cached.rules.equals(rules) ? cached.texts : null;
+    }
+
+    void put(final int kind, final int entryIndex, final String rules, final String[] texts) {
+        cache.put(key(kind, entryIndex), new CachedText(rules, texts));
+    }
+
+    public void setMaxChars(final int maxChars) {
+        cache.setCapacity(maxChars);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * @return approximate memory use, in chars.
+     */
+    public int sizeInChars() {
+        return (int)cache.weight();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("NormalizedTextCache(entries=%d, chars=%d, hits=%d, misses=%d)",
+                             size(), sizeInChars(), getHits(), getMisses());
+    }
+}
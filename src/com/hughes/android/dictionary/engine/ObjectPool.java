@@ -0,0 +1,78 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reuses objects that are expensive to create but must not be used by
+ * two threads at once (Inflaters, Transliterators, Collators).
+ * An object is borrowed for one operation and released afterwards.
+ * Unlike a ThreadLocal this also works with short-lived threads, e.g. a
+ * virtual thread per request, and the number of idle objects is bounded,
+ * extra ones are discarded when released.
+ */
+abstract class ObjectPool<T> {
+
+    static final int DEFAULT_MAX_IDLE = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+    private final ConcurrentLinkedQueue<T> idle = new ConcurrentLinkedQueue<>();
+    // ConcurrentLinkedQueue.size() is not constant time.
+    private final AtomicInteger numIdle = new AtomicInteger();
+    private final int maxIdle;
+
+    ObjectPool() {
+        this(DEFAULT_MAX_IDLE);
+    }
+
+    ObjectPool(final int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * @return a new object, when none is idle.
+     */
+    protected abstract T create();
+
+    /**
+     * Frees whatever t holds beyond memory, called for objects
+     * released while the pool is full.
+     */
+    protected void discard(final T t) {
+    }
+
+    /**
+     * @return an object for use by the calling thread only, until it is
+     * passed to release.
+     */
+    final T borrow() {
+        final T t = idle.poll();
+        if (t == null) {
+            return create();
+        }
+        numIdle.decrementAndGet();
+        return t;
+    }
+
+    final void release(final T t) {
+        if (numIdle.incrementAndGet() <= maxIdle) {
+            idle.offer(t);
+        } else {
+            numIdle.decrementAndGet();
+            discard(t);
+        }
+    }
+}
@@ -182,12 +182,37 @@ public class PairEntry extends AbstractEntry implements Comparable<PairEntry> {
         public RowMatchType matches(final List<String> searchTokens,
                                     final Pattern orderedMatchPattern, final Transliterator normalizer,
                                     final boolean swapPairEntries) {
+            return matches(getEntry(), searchTokens, orderedMatchPattern, normalizer, swapPairEntries);
+        }
+
+        private String[] normalizedSides(final PairEntry entry, final Transliterator normalizer,
+                                         final boolean swapPairEntries) {
             final int side = swapPairEntries ? 1 : 0;
-            final List<Pair> pairs = getEntry().pairs;
-            final String[] pairSides = new String[pairs.size()];
-            for (int i = 0; i < pairs.size(); ++i) {
-                pairSides[i] = normalizer.transform(pairs.get(i).get(side));
+            final NormalizedTextCache cache = index.dict.normalizedTexts;
+            final int kind = swapPairEntries ? NormalizedTextCache.PAIR_SIDE_1 : NormalizedTextCache.PAIR_SIDE_0;
+            String[] pairSides = cache.get(kind, entry.index(), index.normalizerRules);
+            if (pairSides == null) {
+                final List<Pair> pairs = entry.pairs;
+                pairSides = new String[pairs.size()];
+                for (int i = 0; i < pairs.size(); ++i) {
+                    pairSides[i] = normalizer.transform(pairs.get(i).get(side));
+                }
+                cache.put(kind, entry.index(), index.normalizerRules, pairSides);
             }
+            return pairSides;
+        }
+
+        @Override
+        Matcher prepareMatch(final boolean swapPairEntries) {
+            final PairEntry entry = getEntry();
+            return (searchTokens, orderedMatchPattern, normalizer) ->
+                   matches(entry, searchTokens, orderedMatchPattern, normalizer, swapPairEntries);
+        }
+
+        private RowMatchType matches(final PairEntry entry, final List<String> searchTokens,
+                                     final Pattern orderedMatchPattern, final Transliterator normalizer,
+                                     final boolean swapPairEntries) {
+            final String[] pairSides = normalizedSides(entry, normalizer, swapPairEntries);
             for (int i = searchTokens.size() - 1; i >= 0; --i) {
                 final String searchToken = searchTokens.get(i);
                 boolean found = false;
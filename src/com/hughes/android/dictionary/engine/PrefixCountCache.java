@@ -0,0 +1,79 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+/**
+ * Bounded LRU memo of the number of rows starting with a normalized prefix.
+ * Thread-safe.
+ */
+public final class PrefixCountCache {
+
+    static final int DEFAULT_CAPACITY = 4096;
+
+    private final SegmentedLruCache<String, Integer> cache;
+
+    PrefixCountCache(final int capacity) {
+        cache = new SegmentedLruCache<>(capacity, count -> 1);
+    }
+
+    /**
+     * @return the cached count, or -1 if not cached.
+     */
+    int get(final String prefix) {
+        final Integer count = cache.get(prefix);
+        return count != null ? count : -1;
+    }
+
+    void put(final String prefix, final int count) {
+        cache.put(prefix, count);
+    }
+
+    /**
+     * Sets the maximum number of cached prefixes, 0 disables caching.
+     */
+    public void setCapacity(final int capacity) {
+        cache.setCapacity(capacity);
+    }
+
+    public int getCapacity() {
+        return (int)cache.getCapacity();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    public double getHitRate() {
+        return cache.getHitRate();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PrefixCountCache(size=%d, capacity=%d, hits=%d, misses=%d)",
+                             size(), getCapacity(), getHits(), getMisses());
+    }
+}
@@ -0,0 +1,165 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Trains the preset deflate dictionary of a list_of from a sample of
+ * its blocks, so that small blocks do not each start with an empty
+ * window.
+ * Blocks are sampled uniformly while the list is written, then
+ * train() picks the segments of the samples that contain the most
+ * byte sequences shared between many blocks (similar to the COVER
+ * algorithm of zstd), most useful ones last, where deflate finds them
+ * with the shortest distances.
+ * The result only depends on the blocks, so the file stays reproducible.
+ */
+final class PresetDictionary {
+
+    static final int MAX_SIZE = 8 * 1024;
+    // Below this a list gains too little to store a dictionary.
+    private static final int MIN_BLOCKS = 8;
+    private static final int MAX_SAMPLES = 64;
+    private static final int MAX_SAMPLE_BYTES = 4096;
+    // Length of the byte sequences that are counted.
+    private static final int KMER = 6;
+    private static final int SEGMENT = 64;
+    private static final int HASH_BITS = 16;
+
+    private final byte[][] samples = new byte[MAX_SAMPLES][];
+    private final Random random = new Random(0);
+    private int blocks;
+
+    /**
+     * Offers the next block of the list to the sample.
+     */
+    void sample(final ByteArrayOutputStream block) {
+        final int slot = blocks < MAX_SAMPLES ? blocks : random.nextInt(blocks + 1);
+        ++blocks;
+        if (slot < MAX_SAMPLES) {
+            final byte[] bytes = block.toByteArray();
+            samples[slot] = bytes.length > MAX_SAMPLE_BYTES ? Arrays.copyOf(bytes, MAX_SAMPLE_BYTES) : bytes;
+        }
+    }
+
+    /**
+     * @return the dictionary, or null if the list is too short to need one.
+     */
+    byte[] train() {
+        if (blocks < MIN_BLOCKS) {
+            return null;
+        }
+        final int numSamples = Math.min(blocks, MAX_SAMPLES);
+        final ByteArrayOutputStream corpusBytes = new ByteArrayOutputStream();
+        for (int i = 0; i < numSamples; ++i) {
+            corpusBytes.write(samples[i], 0, samples[i].length);
+        }
+        final byte[] corpus = corpusBytes.toByteArray();
+        if (corpus.length < SEGMENT) {
+            return null;
+        }
+
+        // Number of samples each sequence occurs in, sequences only
+        // found in one block do not help.
+        final int[] frequency = new int[1 << HASH_BITS];
+        final int[] lastSample = new int[1 << HASH_BITS];
+        Arrays.fill(lastSample, -1);
+        int pos = 0;
+        for (int i = 0; i < numSamples; ++i) {
+            final int end = pos + samples[i].length;
+            for (; pos + KMER <= end; ++pos) {
+                final int h = hash(corpus, pos);
+                if (lastSample[h] != i) {
+                    lastSample[h] = i;
+                    ++frequency[h];
+                }
+            }
+            pos = end;
+        }
+        for (int h = 0; h < frequency.length; ++h) {
+            if (frequency[h] < 2) {
+                frequency[h] = 0;
+            }
+        }
+
+        // The best segment of each epoch, so that the dictionary covers
+        // the whole sample and not just its most repetitive part.
+        final int epochs = Math.max(1, Math.min(MAX_SIZE / SEGMENT, corpus.length / SEGMENT));
+        final int epochSize = corpus.length / epochs;
+        final List<Segment> segments = new ArrayList<>();
+        for (int epoch = 0; epoch < epochs; ++epoch) {
+            final int start = epoch * epochSize;
+            final int end = Math.min(corpus.length, start + epochSize);
+            if (end - start < SEGMENT) {
+                continue;
+            }
+            long score = 0;
+            for (int p = start; p + KMER <= start + SEGMENT; ++p) {
+                score += frequency[hash(corpus, p)];
+            }
+            long bestScore = score;
+            int best = start;
+            for (int p = start + 1; p + SEGMENT <= end; ++p) {
+                score -= frequency[hash(corpus, p - 1)];
+                score += frequency[hash(corpus, p + SEGMENT - KMER)];
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = p;
+                }
+            }
+            if (bestScore == 0) {
+                continue;
+            }
+            segments.add(new Segment(best, bestScore));
+            // Later epochs should add something new.
+            for (int p = best; p + KMER <= best + SEGMENT; ++p) {
+                frequency[hash(corpus, p)] = 0;
+            }
+        }
+        if (segments.isEmpty()) {
+            return null;
+        }
+        Collections.sort(segments, (a, b) -> Long.compare(a.score, b.score));
+        final ByteArrayOutputStream dictionary = new ByteArrayOutputStream(segments.size() * SEGMENT);
+        for (final Segment segment : segments) {
+            dictionary.write(corpus, segment.start, SEGMENT);
+        }
+        return dictionary.toByteArray();
+    }
+
+    private static int hash(final byte[] b, final int pos) {
+        long v = 0;
+        for (int i = 0; i < KMER; ++i) {
+            v = v << 8 | (b[pos + i] & 0xff);
+        }
+        return (int)((v * 0x9E3779B97F4A7C15L) >>> (64 - HASH_BITS));
+    }
+
+    private static final class Segment {
+        final int start;
+        final long score;
+
+        Segment(final int start, final long score) {
+            this.start = start;
+            this.score = score;
+        }
+    }
+}
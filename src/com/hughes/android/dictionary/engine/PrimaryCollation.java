@@ -0,0 +1,213 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import com.hughes.android.dictionary.CollatorWrapper;
+
+import java.text.CharacterIterator;
+import java.text.CollationElementIterator;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Compares one search token against the normalized tokens of index
+ * entries by the primary weights of their collation elements, reading
+ * the entry chars in place instead of creating a String for each.
+ * A primary difference decides a collator comparison at any strength,
+ * so if there is one the result is the same as the collator's.
+ * Otherwise (the tokens differ only in accents, case etc.) compare()
+ * returns 0 and the Strings have to be compared.
+ * Not thread-safe, like the collator it is created from.
+ */
+final class PrimaryCollation {
+
+    // Low bits of a collation element that is the second half of
+    // a long primary weight.
+    private static final int CONTINUATION = 0xc0;
+
+    private final CollationElementIterator elements;
+    private final boolean withoutDash;
+    private final Chars chars = new Chars();
+    // Primary weights of the token, shifted by one with the
+    // continuation flag in the lowest bit.
+    private int[] tokenWeights = new int[16];
+    private int numTokenWeights;
+
+    private PrimaryCollation(final CollationElementIterator elements, final boolean withoutDash) {
+        this.elements = elements;
+        this.withoutDash = withoutDash;
+    }
+
+    /**
+     * @param withoutDash whether to compare the tokens as changed by
+     *                    NormalizeComparator.withoutDash.
+     * @return null if the collator does not provide collation elements.
+     */
+    static PrimaryCollation create(final Comparator<Object> collator, final String token,
+                                   final boolean withoutDash) {
+        final CollationElementIterator elements = CollatorWrapper.getCollationElementIterator(collator);
+        if (elements == null) {
+            return null;
+        }
+        final PrimaryCollation result = new PrimaryCollation(elements, withoutDash);
+        result.chars.set(token, withoutDash);
+        elements.setText(result.chars);
+        int weight;
+        while ((weight = result.nextWeight()) != -1) {
+            if (result.numTokenWeights == result.tokenWeights.length) {
+                result.tokenWeights = Arrays.copyOf(result.tokenWeights, 2 * result.numTokenWeights);
+            }
+            result.tokenWeights[result.numTokenWeights++] = weight;
+        }
+        return result;
+    }
+
+    /**
+     * @return the sign of comparing the token against entryToken if
+     * their primary weights differ, otherwise 0.
+     */
+    int compare(final CharSequence entryToken) {
+        chars.set(entryToken, withoutDash);
+        elements.setText(chars);
+        for (int i = 0; ; ++i) {
+            final int weight = nextWeight();
+            if (weight == -1) {
+                // Equal primary weights are left to the collator.
+                return i < numTokenWeights ? 1 : 0;
+            }
+            if (i == numTokenWeights) {
+                return -1;
+            }
+            final int tokenWeight = tokenWeights[i];
+            if (tokenWeight != weight) {
+                // Where only one is the second half of a long weight, the
+                // halves after it are not compared with their counterparts.
+                if ((tokenWeight & 1) != (weight & 1)) {
+                    return 0;
+                }
+                return tokenWeight < weight ? -1 : 1;
+            }
+        }
+    }
+
+    // The next non-ignorable primary weight of the text of elements,
+    // -1 at its end.
+    private int nextWeight() {
+        int order;
+        do {
+            order = elements.next();
+            if (order == CollationElementIterator.NULLORDER) {
+                return -1;
+            }
+        } while (CollationElementIterator.primaryOrder(order) == 0);
+        return CollationElementIterator.primaryOrder(order) << 1
+               | ((order & CONTINUATION) == CONTINUATION ? 1 : 0);
+    }
+
+    /**
+     * Reusable CharacterIterator over a copy of a token.
+     */
+    private static final class Chars implements CharacterIterator {
+        private char[] buffer = new char[32];
+        private int length;
+        private int pos;
+
+        void set(final CharSequence token, final boolean withoutDash) {
+            // þ becomes two chars.
+            if (buffer.length < 2 * token.length()) {
+                buffer = new char[Math.max(2 * token.length(), 2 * buffer.length)];
+            }
+            length = 0;
+            for (int i = 0; i < token.length(); ++i) {
+                final char c = token.charAt(i);
+                if (!withoutDash) {
+                    buffer[length++] = c;
+                } else if (c == 'þ' || c == 'Þ') {
+                    buffer[length++] = c == 'þ' ? 't' : 'T';
+                    buffer[length++] = 'h';
+                } else if (c != '-') {
+                    buffer[length++] = c;
+                }
+            }
+            pos = 0;
+        }
+
+        @Override
+        public char first() {
+            pos = 0;
+            return current();
+        }
+
+        @Override
+        public char last() {
+            pos = length > 0 ? length - 1 : 0;
+            return current();
+        }
+
+        @Override
+        public char current() {
+            return pos < length ? buffer[pos] : DONE;
+        }
+
+        @Override
+        public char next() {
+            if (pos < length) {
+                ++pos;
+            }
+            return current();
+        }
+
+        @Override
+        public char previous() {
+            if (pos == 0) {
+                return DONE;
+            }
+            return buffer[--pos];
+        }
+
+        @Override
+        public char setIndex(final int position) {
+            if (position < 0 || position > length) {
+                throw new IllegalArgumentException("Invalid index " + position);
+            }
+            pos = position;
+            return current();
+        }
+
+        @Override
+        public int getBeginIndex() {
+            return 0;
+        }
+
+        @Override
+        public int getEndIndex() {
+            return length;
+        }
+
+        @Override
+        public int getIndex() {
+            return pos;
+        }
+
+        @Override
+        public Object clone() {
+            final Chars copy = new Chars();
+            copy.buffer = Arrays.copyOf(buffer, length);
+            copy.length = length;
+            copy.pos = pos;
+            return copy;
+        }
+    }
+}
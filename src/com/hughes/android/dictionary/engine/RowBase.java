@@ -27,6 +27,14 @@ import java.util.List;
 import java.util.regex.Pattern;
 
 public abstract class RowBase extends IndexedObject {
+
+    // Row types, as stored and as returned by Index.rowType().
+    public static final int TYPE_PAIR = 0;
+    public static final int TYPE_TOKEN = 1;
+    public static final int TYPE_TEXT = 2;
+    public static final int TYPE_TOKEN_NO_MAIN = 3;
+    public static final int TYPE_HTML = 4;
+
     /**
      * the Index owning this RowBase.
      */
@@ -39,8 +47,10 @@ public abstract class RowBase extends IndexedObject {
 
     /**
      * the TokenRow above this RowBase, populated on demand.
+     * Several threads may find and set it at the same time,
+     * they always agree on the row.
      */
-    private TokenRow tokenRow = null;
+    private volatile TokenRow tokenRow = null;
 
     RowBase(final DataInput raf, final int thisRowIndex, final Index index, final int extra)
     throws IOException {
@@ -64,6 +74,20 @@ public abstract class RowBase extends IndexedObject {
             this.referenceIndex = referenceIndex;
         }
 
+        /**
+         * @return what getRowKey() gives for a row of this type, as a
+         * number, without reading the row or creating a key.
+         */
+        static long bits(final int type, final int referenceIndex) {
+            // Both token row types are TokenRows.
+            final int rowClass = type == TYPE_TOKEN_NO_MAIN ? TYPE_TOKEN : type;
+            return (long)rowClass << 32 | (referenceIndex & 0xffffffffL);
+        }
+
+        static long bits(final RowBase row) {
+            return bits(Serializer.type(row), row.referenceIndex);
+        }
+
         @Override
         public boolean equals(Object o) {
             if (!(o instanceof RowKey)) {
@@ -89,44 +113,14 @@ public abstract class RowBase extends IndexedObject {
      */
     public TokenRow getTokenRow(final boolean search) {
         if (tokenRow == null && search) {
-            int r = index() - 1;
-            int rUp = index() + 1;
-            while (r >= 0) {
-                final RowBase row = index.rows.get(r);
-                final TokenRow candidate = row.getTokenRow(false);
-                if (candidate != null) {
-                    for (++r; r <= index(); ++r) {
-                        index.rows.get(r).setTokenRow(candidate);
-                    }
-                    break;
-                }
-                if (rUp < index.rows.size()) {
-                    final RowBase rowUp = index.rows.get(rUp);
-                    TokenRow candidateUp = rowUp.getTokenRow(false);
-                    if (candidateUp != null) {
-                        // Did we hit the next set of TokenRows?
-                        if (candidateUp.index() > this.index()) {
-                            final int tokenIndex = index.sortedIndexEntries
-                                                   .get(candidateUp.referenceIndex - 1).startRow;
-                            candidateUp = (TokenRow) index.rows.get(tokenIndex);
-                        }
-                        for (--rUp; rUp >= index(); --rUp) {
-                            index.rows.get(rUp).setTokenRow(candidateUp);
-                        }
-                        break;
-                    }
-                    rUp++;
-                }
-                --r;
-            }
-            assert tokenRow != null;
+            setTokenRow((TokenRow) index.rows.get(index.tokenRowIndex(index())));
         }
         return tokenRow;
     }
 
     void setTokenRow(TokenRow tokenRow) {
-        assert this.tokenRow == null;
         assert tokenRow != null;
+        assert this.tokenRow == null || this.tokenRow.index() == tokenRow.index();
         this.tokenRow = tokenRow;
     }
 
@@ -137,6 +131,20 @@ public abstract class RowBase extends IndexedObject {
     public abstract RowMatchType matches(final List<String> searchTokens,
                                          final Pattern orderedMatch, final Transliterator normalizer, boolean swapPairEntries);
 
+    /**
+     * Like matches, but split in two: this call reads everything needed
+     * from the dictionary, while the returned Matcher only works on that
+     * data and thus can be run on a different thread.
+     */
+    Matcher prepareMatch(final boolean swapPairEntries) {
+        return (searchTokens, orderedMatch, normalizer) ->
+               matches(searchTokens, orderedMatch, normalizer, swapPairEntries);
+    }
+
+    interface Matcher {
+        RowMatchType matches(List<String> searchTokens, Pattern orderedMatch, Transliterator normalizer);
+    }
+
     // RowBase must manage "disk-based" polymorphism. All other polymorphism is
     // dealt with in the normal manner.
     static class Serializer implements RAFListSerializer<RowBase> {
@@ -147,6 +155,20 @@ public abstract class RowBase extends IndexedObject {
             this.index = index;
         }
 
+        // Decoding of a stored row without reading it, from its bytes as
+        // a big-endian number (see UniformList.readBits): the type byte,
+        // then a Short, or an Int for old formats, see read().
+        static int type(final long bits, final int entrySize) {
+            final int firstByte = (int)(bits >>> 8 * (entrySize - 1));
+            return firstByte >= 0x20 ? (firstByte >> 5) - 1 : firstByte;
+        }
+
+        static int referenceIndex(final long bits, final int entrySize) {
+            final int firstByte = (int)(bits >>> 8 * (entrySize - 1));
+            final int rest = (int)(bits & ((1L << 8 * (entrySize - 1)) - 1));
+            return firstByte >= 0x20 ? ((firstByte & 0x1f) << 16) + rest : rest;
+        }
+
         @Override
         public RowBase read(DataInput raf, final int listIndex) throws IOException {
             int rowType = raf.readUnsignedByte();
@@ -156,14 +178,14 @@ public abstract class RowBase extends IndexedObject {
                 rowType = (rowType >> 5) - 1;
             }
             switch (rowType) {
-                case 0:
+                case TYPE_PAIR:
                     return new PairEntry.Row(raf, listIndex, index, extra);
-                case 1:
-                case 3:
-                    return new TokenRow(raf, listIndex, index, /* hasMainEntry */rowType == 1, extra);
-                case 2:
+                case TYPE_TOKEN:
+                case TYPE_TOKEN_NO_MAIN:
+                    return new TokenRow(raf, listIndex, index, /* hasMainEntry */rowType == TYPE_TOKEN, extra);
+                case TYPE_TEXT:
                     return new TextEntry.Row(raf, listIndex, index, extra);
-                case 4:
+                case TYPE_HTML:
                     return new HtmlEntry.Row(raf, listIndex, index, extra);
             }
             throw new RuntimeException("Invalid rowType:" + rowType);
@@ -171,22 +193,26 @@ public abstract class RowBase extends IndexedObject {
 
         @Override
         public void write(DataOutput raf, RowBase t) throws IOException {
-            int type = 0;
-            if (t instanceof PairEntry.Row) {
-                type = 0;
-            } else if (t instanceof TokenRow) {
-                final TokenRow tokenRow = (TokenRow) t;
-                type = tokenRow.hasMainEntry ? 1 : 3;
+            write(raf, type(t), t.referenceIndex);
+        }
+
+        static int type(RowBase t) {
+            if (t instanceof TokenRow) {
+                return ((TokenRow) t).hasMainEntry ? TYPE_TOKEN : TYPE_TOKEN_NO_MAIN;
             } else if (t instanceof TextEntry.Row) {
-                type = 2;
+                return TYPE_TEXT;
             } else if (t instanceof HtmlEntry.Row) {
-                type = 4;
+                return TYPE_HTML;
             }
-            assert t.referenceIndex < (1 << 21);
-            if ((t.referenceIndex >> 16) >= (1 << 5))
+            return TYPE_PAIR;
+        }
+
+        static void write(DataOutput raf, int type, int referenceIndex) throws IOException {
+            assert referenceIndex < (1 << 21);
+            if ((referenceIndex >> 16) >= (1 << 5))
                 throw new RuntimeException("referenceIndex larger than supported max");
-            raf.writeByte(((type + 1) << 5) + (t.referenceIndex >> 16));
-            raf.writeShort(t.referenceIndex);
+            raf.writeByte(((type + 1) << 5) + (referenceIndex >> 16));
+            raf.writeShort(referenceIndex);
         }
     }
 
@@ -0,0 +1,116 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+/**
+ * Iterates over a range of Index.rows, giving the type and reference
+ * of each row without creating RowBase objects.
+ * The rows are copied from the dictionary in batches into a reusable
+ * buffer, so a scan does not allocate once the cursor exists.
+ * For use by a single thread, see Index.rowCursor().
+ */
+public final class RowCursor {
+
+    private static final int BATCH_ROWS = 256;
+
+    private final Index index;
+    // null for an index that was not read from a file.
+    private final UniformList<RowBase> table;
+    private final int entrySize;
+    private final byte[] buffer;
+    // Rows in buffer.
+    private int bufferStart;
+    private int bufferEnd;
+    private int row;
+    private int end;
+    private int type;
+    private int referenceIndex;
+
+    RowCursor(final Index index, final UniformList<RowBase> table) {
+        this.index = index;
+        this.table = table;
+        entrySize = table != null ? table.entrySize() : 0;
+        buffer = table != null ? new byte[BATCH_ROWS * entrySize] : null;
+    }
+
+    /**
+     * Positions the cursor before row start, next() then moves to the
+     * rows up to end (exclusive) or the last row.
+     */
+    public RowCursor reset(final int start, final int end) {
+        if (start < 0) {
+            throw new IndexOutOfBoundsException("Row " + start);
+        }
+        row = start - 1;
+        this.end = Math.min(end, index.rows.size());
+        bufferStart = bufferEnd = 0;
+        return this;
+    }
+
+    /**
+     * Moves to the next row.
+     * @return false if there are no more rows in the range.
+     */
+    public boolean next() {
+        if (row + 1 >= end) {
+            return false;
+        }
+        ++row;
+        if (table == null) {
+            final RowBase r = index.rows.get(row);
+            type = RowBase.Serializer.type(r);
+            referenceIndex = r.referenceIndex;
+            return true;
+        }
+        if (row >= bufferEnd) {
+            bufferStart = row;
+            bufferEnd = Math.min(end, row + BATCH_ROWS);
+            table.readRaw(bufferStart, bufferEnd - bufferStart, buffer);
+        }
+        final int pos = (row - bufferStart) * entrySize;
+        long bits = 0;
+        for (int n = 0; n < entrySize; ++n) {
+            bits = bits << 8 | (buffer[pos + n] & 0xff);
+        }
+        type = RowBase.Serializer.type(bits, entrySize);
+        referenceIndex = RowBase.Serializer.referenceIndex(bits, entrySize);
+        return true;
+    }
+
+    public int row() {
+        return row;
+    }
+
+    /**
+     * @return one of the RowBase.TYPE_ constants.
+     */
+    public int type() {
+        return type;
+    }
+
+    /**
+     * @return what RowBase.referenceIndex of the row would be.
+     */
+    public int referenceIndex() {
+        return referenceIndex;
+    }
+
+    /**
+     * @return the current row itself, which reads it like Index.rows.
+     */
+    public RowBase get() {
+        return index.rows.get(row);
+    }
+}
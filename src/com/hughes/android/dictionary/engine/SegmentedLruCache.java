@@ -0,0 +1,207 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+/**
+ * LRU cache bounded by the total weight of its values, e.g. 1 per value
+ * or their size in bytes.
+ * It is split into independently locked segments by key hash, so that
+ * threads using it at once rarely wait for each other. Each segment gets
+ * an equal share of the capacity and evicts in LRU order, which is close
+ * enough to a global LRU.
+ * Thread-safe.
+ */
+final class SegmentedLruCache<K, V> {
+
+    private static final int NUM_SEGMENTS = 16;
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+        long capacity;
+        long weight;
+
+        Segment(final long capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+    }
+
+    private final Segment<K, V>[] segments;
+    private final ToIntFunction<? super V> weigher;
+    private volatile long capacity;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    SegmentedLruCache(final long capacity, final ToIntFunction<? super V> weigher) {
+        this.capacity = capacity;
+        this.weigher = weigher;
+        segments = new Segment[NUM_SEGMENTS];
+        for (int i = 0; i < segments.length; ++i) {
+            segments[i] = new Segment<>(segmentCapacity(capacity));
+        }
+    }
+
+    // Rounded up, so that a small capacity still caches something.
+    private static long segmentCapacity(final long capacity) {
+        return (capacity + NUM_SEGMENTS - 1) / NUM_SEGMENTS;
+    }
+
+    private Segment<K, V> segment(final K key) {
+        final int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (NUM_SEGMENTS - 1)];
+    }
+
+    /**
+     * @return the cached value, or null if there is none.
+     */
+    V get(final K key) {
+        final Segment<K, V> segment = segment(key);
+        final V value;
+        synchronized (segment) {
+            value = segment.get(key);
+        }
+        if (value == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return value;
+    }
+
+    void put(final K key, final V value) {
+        final Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            add(segment, key, value);
+        }
+    }
+
+    /**
+     * Caches value unless there already is one for key.
+     * @return the value cached before, or null if there was none.
+     */
+    V putIfAbsent(final K key, final V value) {
+        final Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            final V old = segment.get(key);
+            if (old != null) {
+                return old;
+            }
+            add(segment, key, value);
+        }
+        return null;
+    }
+
+    // With segment locked.
+    private void add(final Segment<K, V> segment, final K key, final V value) {
+        final int weight = weigher.applyAsInt(value);
+        // One that does not fit would only flush the whole segment.
+        final boolean fits = weight <= segment.capacity;
+        final V old = fits ? segment.put(key, value) : segment.remove(key);
+        if (old != null) {
+            segment.weight -= weigher.applyAsInt(old);
+        }
+        if (fits) {
+            segment.weight += weight;
+            trim(segment);
+        }
+    }
+
+    // With segment locked.
+    private void trim(final Segment<K, V> segment) {
+        int evicted = 0;
+        final Iterator<V> it = segment.values().iterator();
+        while (segment.weight > segment.capacity && it.hasNext()) {
+            segment.weight -= weigher.applyAsInt(it.next());
+            it.remove();
+            ++evicted;
+        }
+        if (evicted > 0) {
+            evictions.addAndGet(evicted);
+        }
+    }
+
+    /**
+     * Sets the maximum total weight, 0 disables caching.
+     */
+    void setCapacity(final long capacity) {
+        this.capacity = capacity;
+        for (final Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.capacity = segmentCapacity(capacity);
+                trim(segment);
+            }
+        }
+    }
+
+    long getCapacity() {
+        return capacity;
+    }
+
+    void clear() {
+        for (final Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+                segment.weight = 0;
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (final Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the total weight of the cached values.
+     */
+    long weight() {
+        long weight = 0;
+        for (final Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                weight += segment.weight;
+            }
+        }
+        return weight;
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    long getEvictions() {
+        return evictions.get();
+    }
+
+    double getHitRate() {
+        final long h = hits.get();
+        final long total = h + misses.get();
+        return total == 0 ? 0 : (double)h / total;
+    }
+}
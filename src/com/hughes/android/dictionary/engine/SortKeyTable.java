@@ -0,0 +1,142 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import com.hughes.android.dictionary.CollatorWrapper;
+import com.hughes.util.DataInputBuffer;
+import com.hughes.util.StringUtil;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Precomputed collation keys for the normalized tokens of an Index,
+ * so that binary search can compare plain bytes instead of running
+ * the Collator (and withoutDash) on every probe.
+ * Keys depend on the exact collator implementation, so they are
+ * only used after checking the first entry of every block (and the
+ * last entry) against the runtime collator, see Index.usableSortKeys.
+ * That check needs the block heads or the entry table, so keys stored
+ * without either of them are ignored.
+ */
+final class SortKeyTable {
+
+    private final DataRegion data;
+    private final int size;
+    private final int keysStart;
+
+    private SortKeyTable(final DataRegion data, final int size) {
+        this.data = data;
+        this.size = size;
+        this.keysStart = (size + 1) * 4;
+    }
+
+    static SortKeyTable read(final DataInputBuffer raf, final int size) throws IOException {
+        final int len = raf.readInt();
+        return new SortKeyTable(new DataRegion(raf, len), size);
+    }
+
+    /**
+     * Writes the keys of one entry, see TableWriter for the table around them.
+     */
+    static void writeEntry(final DataOutput out, final String normalized,
+                           final Comparator<Object> collator) throws IOException {
+        final byte[] key = CollatorWrapper.getSortKey(collator, NormalizeComparator.withoutDash(normalized));
+        final byte[] fullKey = CollatorWrapper.getSortKey(collator, normalized);
+        StringUtil.writeVarInt(out, key.length);
+        out.write(key);
+        // Empty second key means "same as the first one", the common case.
+        if (!Arrays.equals(key, fullKey)) {
+            out.write(fullKey);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Checks the stored keys of one entry against the given collator.
+     */
+    boolean matches(final int entry, final String normalized, final Comparator<Object> collator) {
+        final byte[] key = CollatorWrapper.getSortKey(collator, NormalizeComparator.withoutDash(normalized));
+        final byte[] fullKey = CollatorWrapper.getSortKey(collator, normalized);
+        return compare(entry, key, fullKey) == 0;
+    }
+
+    /**
+     * Same result as NormalizeComparator.compareWithoutDash(token, entry).
+     */
+    int compareWithoutDash(final int entry, final byte[] key) {
+        return compare(entry, key, null);
+    }
+
+    /**
+     * Compares the token the keys were created from against
+     * the normalized token of the given entry, first without and
+     * then (if fullKey != null) with dashes.
+     */
+    int compare(final int entry, final byte[] key, final byte[] fullKey) {
+        try {
+            final DataInputBuffer in = data.borrow(entry * 4);
+            final DataInputBuffer keys;
+            try {
+                final int start = in.readInt();
+                final int end = in.readInt();
+                in.rewind();
+                in.skipBytes(keysStart + start);
+                keys = in.slice(end - start);
+            } finally {
+                data.release(in);
+            }
+            final int keyLen = StringUtil.readVarInt(keys);
+            final int c = compareNext(keys, keyLen, key);
+            if (c != 0 || fullKey == null) {
+                return c;
+            }
+            final int fullKeyLen = keys.limit() - IndexEntryTable.varIntSize(keyLen) - keyLen;
+            if (fullKeyLen == 0) {
+                return compareAt(keys, IndexEntryTable.varIntSize(keyLen), keyLen, fullKey);
+            }
+            return compareAt(keys, IndexEntryTable.varIntSize(keyLen) + keyLen, fullKeyLen, fullKey);
+        } catch (IOException e) {
+            throw new RuntimeException("Dictionary sort keys corrupted", e);
+        }
+    }
+
+    private static int compareAt(final DataInputBuffer keys, final int pos, final int len,
+                                 final byte[] key) throws IOException {
+        keys.rewind();
+        keys.skipBytes(pos);
+        return compareNext(keys, len, key);
+    }
+
+    // Unsigned lexicographic compare of key against the next len bytes,
+    // a key that is a prefix of the other sorts first.
+    private static int compareNext(final DataInputBuffer keys, final int len,
+                                   final byte[] key) throws IOException {
+        final int n = Math.min(len, key.length);
+        for (int i = 0; i < n; ++i) {
+            final int c = (key[i] & 0xff) - keys.readUnsignedByte();
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(key.length, len);
+    }
+
+}
@@ -0,0 +1,116 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Temporary file that a part of a dictionary is appended to while
+ * writing, and that is copied into the final file at the end.
+ */
+final class SpillFile implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final DataOutputStream out;
+    private long length;
+
+    SpillFile(final File dir, final String name) throws IOException {
+        file = File.createTempFile("quickdic-" + name + "-", ".tmp", dir);
+        file.deleteOnExit();
+        // Counts in front of the buffer, so length() does not need a flush.
+        // DataOutputStream.size() would only be an int.
+        out = new DataOutputStream(new FilterOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE)) {
+            @Override
+            public void write(final int b) throws IOException {
+                out.write(b);
+                ++length;
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) throws IOException {
+                out.write(b, off, len);
+                length += len;
+            }
+        });
+    }
+
+    DataOutputStream out() {
+        return out;
+    }
+
+    /**
+     * @return the number of bytes written so far.
+     */
+    long length() {
+        return length;
+    }
+
+    /**
+     * Like length(), for offsets that the format stores as int.
+     */
+    int intLength() throws IOException {
+        final long l = length;
+        if (l > Integer.MAX_VALUE) {
+            throw new IOException("Dictionary part " + file.getName() + " too large: " + l + " bytes");
+        }
+        return (int)l;
+    }
+
+    void copyTo(final DataOutput dest) throws IOException {
+        out.flush();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = new FileInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                dest.write(buffer, 0, n);
+            }
+        }
+    }
+
+    /**
+     * @return a stream reading what was written so far.
+     */
+    InputStream openInput() throws IOException {
+        out.flush();
+        return new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+    }
+
+    /**
+     * Closes and deletes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            out.close();
+        } finally {
+            if (!file.delete() && file.exists()) {
+                throw new IOException("Could not delete " + file);
+            }
+        }
+    }
+}
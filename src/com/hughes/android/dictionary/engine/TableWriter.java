@@ -0,0 +1,71 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import java.io.Closeable;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Streaming writer for the offset tables of SortKeyTable and
+ * IndexEntryTable: an Int total length, one Int offset per entry plus
+ * the end offset, then the entry data.
+ * Offsets and data both go to SpillFiles, so nothing per entry
+ * stays in memory.
+ */
+final class TableWriter implements Closeable {
+
+    private final SpillFile offsets;
+    private final SpillFile data;
+
+    TableWriter(final File spillDir, final String name) throws IOException {
+        offsets = new SpillFile(spillDir, name + "-offsets");
+        data = new SpillFile(spillDir, name);
+    }
+
+    /**
+     * Starts the next entry, its data is then written to the returned output.
+     */
+    DataOutputStream next() throws IOException {
+        offsets.out().writeInt(data.intLength());
+        return data.out();
+    }
+
+    long length() throws IOException {
+        return 4 + offsets.length() + 4 + data.length();
+    }
+
+    void writeTo(final DataOutput out) throws IOException {
+        final long len = length() - 4;
+        if (len > Integer.MAX_VALUE) {
+            throw new IOException("Table too large for the dictionary format");
+        }
+        out.writeInt((int)len);
+        offsets.copyTo(out);
+        out.writeInt(data.intLength());
+        data.copyTo(out);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            offsets.close();
+        } finally {
+            data.close();
+        }
+    }
+}
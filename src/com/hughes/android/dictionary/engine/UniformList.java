@@ -0,0 +1,107 @@
+// Copyright 2026 Reimar Döffinger. All Rights Reserved.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.hughes.android.dictionary.engine;
+
+import com.hughes.util.DataInputBuffer;
+import com.hughes.util.raf.RAFListSerializer;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Reader for uniform_list_of (see dictionary-format.txt) that can be used
+ * from several threads at once, like BlockList.
+ */
+final class UniformList<T> extends AbstractList<T> implements RandomAccess {
+
+    private final DataRegion data;
+    private final RAFListSerializer<T> serializer;
+    private final int size;
+    private final int entrySize;
+
+    UniformList(final DataInputBuffer in, final RAFListSerializer<T> serializer) throws IOException {
+        this.serializer = serializer;
+        size = in.readInt();
+        entrySize = in.readInt();
+        if (size < 0 || entrySize < 1) {
+            throw new IOException("Invalid uniform list header: size " + size + ", entry size " + entrySize);
+        }
+        data = new DataRegion(in, size * entrySize);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    int entrySize() {
+        return entrySize;
+    }
+
+    /**
+     * @return entry i as a big-endian number, for entries of at most
+     * 8 bytes, without creating an object for it.
+     */
+    long readBits(final int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + ", size " + size);
+        }
+        long result = 0;
+        final DataInputBuffer in = data.borrow(i * entrySize);
+        try {
+            for (int n = 0; n < entrySize; ++n) {
+                result = result << 8 | in.readUnsignedByte();
+            }
+        } finally {
+            data.release(in);
+        }
+        return result;
+    }
+
+    /**
+     * Copies the raw bytes of count entries, starting with entry first, into dst.
+     */
+    void readRaw(final int first, final int count, final byte[] dst) {
+        if (first < 0 || count < 0 || first > size - count) {
+            throw new IndexOutOfBoundsException("Entries " + first + " to " + (first + count) + ", size " + size);
+        }
+        final DataInputBuffer in = data.borrow(first * entrySize);
+        try {
+            in.readFully(dst, 0, count * entrySize);
+        } finally {
+            data.release(in);
+        }
+    }
+
+    @Override
+    public T get(final int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + ", size " + size);
+        }
+        try {
+            final DataInputBuffer in = data.borrow(i * entrySize);
+            final DataInputBuffer entry;
+            try {
+                entry = in.slice(entrySize);
+            } finally {
+                data.release(in);
+            }
+            return serializer.read(entry, i);
+        } catch (IOException e) {
+            throw new RuntimeException("Dictionary list data corrupted", e);
+        }
+    }
+}